@@ -1,361 +1,563 @@
-/******************************************************************************
- * Copyright (c) 2006-2024 The IndentGuide Authors.
- * All rights reserved.
- *
- * This program and the accompanying materials are made available under the
- * terms of the MIT License.  A copy of the MIT License is included this
- * distribution and is available at https://opensource.org/licenses/MIT.
- *****************************************************************************/
-package net.certiv.tools.indentguide;
-
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.content.IContentType;
-import org.eclipse.core.runtime.jobs.Job;
-import org.eclipse.jface.dialogs.IPageChangeProvider;
-import org.eclipse.jface.dialogs.PageChangedEvent;
-import org.eclipse.jface.preference.IPreferenceStore;
-import org.eclipse.jface.text.ITextViewerExtension2;
-import org.eclipse.jface.text.source.ISourceViewer;
-import org.eclipse.jface.util.IPropertyChangeListener;
-import org.eclipse.jface.util.PropertyChangeEvent;
-import org.eclipse.ui.IEditorPart;
-import org.eclipse.ui.IStartup;
-import org.eclipse.ui.IWorkbench;
-import org.eclipse.ui.IWorkbenchPage;
-import org.eclipse.ui.IWorkbenchPart;
-import org.eclipse.ui.IWorkbenchPartReference;
-import org.eclipse.ui.IWorkbenchWindow;
-import org.eclipse.ui.PlatformUI;
-import org.eclipse.ui.forms.editor.FormEditor;
-import org.eclipse.ui.part.MultiPageEditorPart;
-import org.eclipse.ui.progress.UIJob;
-import org.eclipse.ui.texteditor.AbstractTextEditor;
-import org.eclipse.ui.texteditor.IDocumentProvider;
-import org.eclipse.ui.texteditor.IDocumentProviderExtension4;
-import org.eclipse.ui.themes.IThemeManager;
-
-import net.certiv.tools.indentguide.adaptors.PartAdaptor;
-import net.certiv.tools.indentguide.adaptors.WindowAdaptor;
-import net.certiv.tools.indentguide.painter.GuidePainter;
-import net.certiv.tools.indentguide.preferences.Pref;
-import net.certiv.tools.indentguide.util.MsgBuilder;
-import net.certiv.tools.indentguide.util.Utils;
-import net.certiv.tools.indentguide.util.Utils.Delta;
-
-public class Starter implements IStartup {
-
-	private static final String JOB_NAME = "IndentGuide Startup"; // $NON-NLS-1$
-	private static final String ACTIVE_EDITOR = "getActiveEditor"; // $NON-NLS-1$
-	private static final String SOURCE_VIEWER = "getSourceViewer"; // $NON-NLS-1$
-
-	private IPreferenceStore store;
-	private Set<String> excludedTypeIds;	// excluded content type ids
-
-	// value=unique data records
-	private final LinkedHashSet<Data> datas = new LinkedHashSet<>();
-
-	private final PartWatcher partWatcher = new PartWatcher();
-	private final PropWatcher propWatcher = new PropWatcher();
-
-	@Override
-	public void earlyStartup() {
-		UIJob job = new UIJob(JOB_NAME) {
-
-			@Override
-			public IStatus runInUIThread(IProgressMonitor monitor) {
-				IWorkbench wb = PlatformUI.getWorkbench();
-				wb.getThemeManager().addPropertyChangeListener(propWatcher);
-				store = Activator.getDefault().getPreferenceStore();
-				store.addPropertyChangeListener(propWatcher);
-
-				updateContentTypes();
-				initWorkbenchWindows();
-
-				wb.addWindowListener(new WindowWatcher());
-				return Status.OK_STATUS;
-			}
-		};
-		job.setPriority(Job.SHORT);
-		job.setSystem(true);
-		job.schedule(200);
-	}
-
-	private void initWorkbenchWindows() {
-		IWorkbench wb = PlatformUI.getWorkbench();
-		for (IWorkbenchWindow window : wb.getWorkbenchWindows()) {
-			initWorkbenchWindow(window);
-			window.getPartService().addPartListener(partWatcher);
-		}
-	}
-
-	private void initWorkbenchWindow(IWorkbenchWindow window) {
-		for (IWorkbenchPage page : window.getPages()) {
-			IWorkbenchPart part = page.getActivePart();
-			if (part instanceof MultiPageEditorPart || part instanceof AbstractTextEditor) {
-				installPainter(part);
-			}
-		}
-	}
-
-	private void installPainter(IWorkbenchPart part) {
-		if (!store.getBoolean(Pref.ENABLED)) return;
-
-		AbstractTextEditor editor = activeEditor(part);
-		if (editor == null) return;
-
-		IContentType type = typeOf(editor);
-		boolean valid = valid(type);
-		// Activator.log("painter %sallowed for '%s' [%s]", valid ? "" : "dis",
-		// srcname(editor), type.getName());
-		if (!valid) return;
-
-		try {
-			ISourceViewer viewer = Utils.invoke(editor, SOURCE_VIEWER);
-			if (viewer instanceof ITextViewerExtension2) {
-				Data data = findRecord(part, editor);
-				if (data == null) {
-					Map<String, List<String>> prefixes = Utils.prefixesFor(viewer);
-					data = new Data(part, editor, type, viewer, prefixes);
-					datas.add(data);
-				}
-				if (data.painter == null) {
-					data.painter = new GuidePainter(viewer, data.prefixes);
-					((ITextViewerExtension2) viewer).addPainter(data.painter);
-					// Activator.log("painter installed");
-				}
-
-			} else {
-				Activator.log("painter not installable in viewer [%s]", Utils.nameOf(viewer));
-			}
-
-		} catch (Throwable e) {
-			Activator.log(e);
-		}
-	}
-
-	private AbstractTextEditor activeEditor(IWorkbenchPart part) {
-		IEditorPart editor = null;
-
-		if (part instanceof FormEditor) {
-			editor = ((FormEditor) part).getActiveEditor();
-
-		} else if (part instanceof MultiPageEditorPart) {
-			try {
-				editor = Utils.invoke(part, ACTIVE_EDITOR);
-			} catch (Throwable e) {
-				Activator.log(e);
-			}
-
-		} else if (part instanceof IEditorPart) {
-			editor = (IEditorPart) part;
-		}
-
-		return (editor instanceof AbstractTextEditor) ? (AbstractTextEditor) editor : null;
-	}
-
-	private Data findRecord(IWorkbenchPart part, AbstractTextEditor editor) {
-		return datas.stream() //
-				.filter(d -> d.part.equals(part) && d.editor.equals(editor)) //
-				.findFirst() //
-				.orElse(null);
-	}
-
-	private boolean valid(IContentType type) {
-		if (type == null) return false;
-		return !excludedTypeIds.contains(type.getId());
-	}
-
-	private IContentType typeOf(AbstractTextEditor editor) {
-		IDocumentProvider provider = editor.getDocumentProvider();
-		if (provider instanceof IDocumentProviderExtension4) {
-			try {
-				IContentType type = ((IDocumentProviderExtension4) provider)
-						.getContentType(editor.getEditorInput());
-				if (type != null) return type;
-			} catch (CoreException e) {
-				Activator.log(e);
-			}
-		}
-		return Utils.getPlatformTextType(Utils.UNKNOWN);
-	}
-
-	// private String srcname(AbstractTextEditor editor) {
-	// IEditorInput src = editor.getEditorInput();
-	// return src != null ? src.getName() : Utils.UNKNOWN;
-	// }
-
-	private void updateContentTypes() {
-		excludedTypeIds = Utils.undelimit(store.getString(Pref.CONTENT_TYPES));
-	}
-
-	private void refreshAll() {
-		Activator.log("refreshAll...");
-		for (Data d : datas) {
-			if (d.painter != null) {
-				d.painter.loadPrefs();
-				d.painter.redrawAll();
-			}
-		}
-	}
-
-	private void deactivate(IWorkbenchPart part) {
-		AbstractTextEditor editor = activeEditor(part);
-		Data d = findRecord(part, editor);
-		if (d != null && d.painter != null) {
-			((ITextViewerExtension2) d.viewer).removePainter(d.painter);
-			d.painter = null;
-		}
-	}
-
-	private void deactivate(Set<IContentType> types) {
-		for (Data d : datas) {
-			if (types.contains(d.type) && d.painter != null) {
-				((ITextViewerExtension2) d.viewer).removePainter(d.painter);
-				d.painter = null;
-			}
-		}
-	}
-
-	private void deactivateAll() {
-		for (Data d : datas) {
-			if (d.painter != null) {
-				((ITextViewerExtension2) d.viewer).removePainter(d.painter);
-				d.painter = null;
-			}
-		}
-	}
-
-	private class WindowWatcher extends WindowAdaptor {
-
-		@Override
-		public void windowOpened(IWorkbenchWindow window) {
-			initWorkbenchWindow(window);
-		}
-	}
-
-	private class PartWatcher extends PartAdaptor {
-
-		@Override
-		public void partOpened(IWorkbenchPartReference ref) {
-			IWorkbenchPart part = ref.getPart(false);
-			if (part instanceof MultiPageEditorPart || part instanceof AbstractTextEditor) {
-				installPainter(part);
-				// Activator.log("part opened '%s'", Utils.nameOf(part));
-			}
-		}
-
-		@Override
-		public void partClosed(IWorkbenchPartReference ref) {
-			IWorkbenchPart part = ref.getPart(false);
-			if (part instanceof MultiPageEditorPart || part instanceof AbstractTextEditor) {
-				deactivate(part);
-				// Activator.log("part closed '%s'", Utils.nameOf(part));
-			}
-		}
-
-		@Override
-		public void pageChanged(PageChangedEvent evt) {
-			IPageChangeProvider provider = evt.getPageChangeProvider();
-			if (provider instanceof MultiPageEditorPart) {
-				// Activator.log("MultiPageEditor page change '%s'",
-				// Utils.nameOf(provider));
-				installPainter((IWorkbenchPart) provider);
-			}
-		}
-	}
-
-	private class PropWatcher implements IPropertyChangeListener {
-
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			String prop = evt.getProperty();
-			Object old = evt.getOldValue();
-			Object now = evt.getNewValue();
-
-			if (prop.equals(IThemeManager.CHANGE_CURRENT_THEME)) {
-				// Activator.log("theme change '%s' [%s] => [%s]", prop, old, now);
-				refreshAll();
-
-			} else if (prop.startsWith(Pref.KEY)) {
-				if (prop.equals(Pref.ENABLED)) {
-					// Activator.log("status change '%s' [%s] => [%s]", prop, old, now);
-					if ((boolean) now) {
-						initWorkbenchWindows();
-
-					} else {
-						deactivateAll();
-					}
-
-				} else if (prop.equals(Pref.CONTENT_TYPES)) {
-					updateContentTypes();
-
-					// Note: logic is reversed because it is an exclusion list
-					Delta<String> delta = Delta.of(Utils.undelimit((String) now),
-							Utils.undelimit((String) old));
-					if (delta.changed()) {
-						MsgBuilder mb = new MsgBuilder("content type change [%s]", prop);
-
-						if (delta.increased()) {
-							initWorkbenchWindows();
-							mb.nl().indent("enabled  [%s]", delta.added);
-						}
-
-						if (delta.decreased()) {
-							mb.nl().indent("disabled [%s]", delta.rmved);
-							deactivate(Utils.getPlatformTextType(delta.rmved));
-						}
-
-						Activator.log(mb.toString());
-					}
-
-					// } else {
-					// Activator.log("property change '%s' [%s] => [%s]", prop, old, now);
-				}
-
-				refreshAll();
-			}
-		}
-	}
-
-	private class Data {
-		IWorkbenchPart part;
-		AbstractTextEditor editor;
-		IContentType type;
-		ISourceViewer viewer;
-		Map<String, List<String>> prefixes;
-
-		GuidePainter painter;
-
-		Data(IWorkbenchPart part, AbstractTextEditor editor, IContentType type, ISourceViewer viewer,
-				Map<String, List<String>> prefixes) {
-			this.part = part;
-			this.editor = editor;
-			this.type = type;
-			this.viewer = viewer;
-			this.prefixes = prefixes;
-		}
-
-		@Override
-		public int hashCode() {
-			return Objects.hash(part, editor);
-		}
-
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj) return true;
-			if (obj == null) return false;
-			if (getClass() != obj.getClass()) return false;
-			Data d = (Data) obj;
-			return Objects.equals(part, d.part) && Objects.equals(editor, d.editor);
-		}
-	}
-}
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.action.IStatusLineManager;
+import org.eclipse.jface.dialogs.IPageChangeProvider;
+import org.eclipse.jface.dialogs.PageChangedEvent;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.ITextViewerExtension2;
+import org.eclipse.jface.text.source.ISourceViewer;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.PaintListener;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IStartup;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.forms.editor.FormEditor;
+import org.eclipse.ui.part.MultiPageEditorPart;
+import org.eclipse.ui.progress.UIJob;
+import org.eclipse.ui.texteditor.AbstractTextEditor;
+import org.eclipse.ui.texteditor.IDocumentProvider;
+import org.eclipse.ui.texteditor.IDocumentProviderExtension4;
+import org.eclipse.ui.themes.IThemeManager;
+
+import net.certiv.tools.indentguide.adaptors.PartAdaptor;
+import net.certiv.tools.indentguide.adaptors.WindowAdaptor;
+import net.certiv.tools.indentguide.painter.GuidePainter;
+import net.certiv.tools.indentguide.preferences.GuideConfig;
+import net.certiv.tools.indentguide.preferences.Messages;
+import net.certiv.tools.indentguide.preferences.Pref;
+import net.certiv.tools.indentguide.util.ColorPool;
+import net.certiv.tools.indentguide.util.MsgBuilder;
+import net.certiv.tools.indentguide.util.PrefixTables;
+import net.certiv.tools.indentguide.util.Utils;
+import net.certiv.tools.indentguide.util.Utils.Delta;
+
+public class Starter implements IStartup {
+
+	private static final String JOB_NAME = "IndentGuide Startup"; // $NON-NLS-1$
+	private static final String ACTIVE_EDITOR = "getActiveEditor"; // $NON-NLS-1$
+	private static final String SOURCE_VIEWER = "getSourceViewer"; // $NON-NLS-1$
+	private static final String SOURCE_CONFIG = "getSourceViewerConfiguration"; // $NON-NLS-1$
+
+	// startup unit kinds
+	private static final String SETUP = "setup"; // $NON-NLS-1$
+	private static final String PAINTERS = "painters"; // $NON-NLS-1$
+
+	/** Startup time budget per event-loop turn */
+	private static final long SLICE_NANOS = 8_000_000L;
+
+	private IPreferenceStore store;
+	private Set<String> excludedTypeIds;	// excluded content type ids
+
+	// painter records by editor; weakly keyed on identity, as editors do not override equals.
+	// Records must not capture their editor strongly; they are released on part close and
+	// on widget disposal
+	private final Map<AbstractTextEditor, Data> records = new WeakHashMap<>();
+
+	private final PartWatcher partWatcher = new PartWatcher();
+	private final PropWatcher propWatcher = new PropWatcher();
+	private boolean refreshPending;
+
+	@Override
+	public void earlyStartup() {
+		UIJob job = new UIJob(JOB_NAME) {
+
+			@Override
+			public IStatus runInUIThread(IProgressMonitor monitor) {
+				new StartupRun().run();
+				return Status.OK_STATUS;
+			}
+		};
+		job.setPriority(Job.SHORT);
+		job.setSystem(true);
+		job.schedule(200);
+	}
+
+	// registers all listeners, then queues the units installing the painters of each page
+	private void startup(StartupRun run) {
+		IWorkbench wb = PlatformUI.getWorkbench();
+		wb.getThemeManager().addPropertyChangeListener(propWatcher);
+		store = Activator.getDefault().getPreferenceStore();
+		store.addPropertyChangeListener(propWatcher);
+		updateContentTypes();
+		wb.addWindowListener(new WindowWatcher());
+
+		for (IWorkbenchWindow window : wb.getWorkbenchWindows()) {
+			window.getPartService().addPartListener(partWatcher);
+			for (IWorkbenchPage page : window.getPages()) {
+				run.add(PAINTERS, () -> {
+					IWorkbenchPart part = page.getActivePart();
+					if (part instanceof MultiPageEditorPart || part instanceof AbstractTextEditor) {
+						installPainter(part);
+					}
+				});
+			}
+		}
+	}
+
+	private void initWorkbenchWindows() {
+		IWorkbench wb = PlatformUI.getWorkbench();
+		for (IWorkbenchWindow window : wb.getWorkbenchWindows()) {
+			initWorkbenchWindow(window);
+			window.getPartService().addPartListener(partWatcher);
+		}
+	}
+
+	private void initWorkbenchWindow(IWorkbenchWindow window) {
+		for (IWorkbenchPage page : window.getPages()) {
+			IWorkbenchPart part = page.getActivePart();
+			if (part instanceof MultiPageEditorPart || part instanceof AbstractTextEditor) {
+				installPainter(part);
+			}
+		}
+	}
+
+	private void installPainter(IWorkbenchPart part) {
+		if (!store.getBoolean(Pref.ENABLED)) return;
+
+		AbstractTextEditor editor = activeEditor(part);
+		if (editor == null) return;
+
+		IContentType type = typeOf(editor);
+		boolean valid = valid(type);
+		// Activator.log("painter %sallowed for '%s' [%s]", valid ? "" : "dis",
+		// srcname(editor), type.getName());
+		if (!valid) return;
+
+		try {
+			ISourceViewer viewer = Utils.invoke(editor, SOURCE_VIEWER);
+			if (viewer instanceof ITextViewerExtension2) {
+				Data data = findRecord(part, editor);
+				if (data == null) {
+					Object config = Utils.invoke(editor, SOURCE_CONFIG);
+					Map<String, List<String>> prefixes = PrefixTables.lookup(type, config, viewer);
+					data = new Data(part, type, viewer, prefixes);
+					records.put(editor, data);
+					WeakReference<AbstractTextEditor> ref = new WeakReference<>(editor);
+					viewer.getTextWidget().addDisposeListener(e -> evict(ref.get()));
+				}
+				if (data.painter == null) {
+					if (viewer.getTextWidget().isVisible()) {
+						attach(data, editor);
+					} else {
+						defer(data, editor);
+					}
+				}
+
+			} else {
+				Activator.log("painter not installable in viewer [%s]", Utils.nameOf(viewer));
+			}
+
+		} catch (Throwable e) {
+			Activator.log(e);
+		}
+	}
+
+	private void attach(Data data, AbstractTextEditor editor) {
+		data.cancelDeferral();
+		data.painter = new GuidePainter(data.viewer, data.prefixes);
+		WeakReference<AbstractTextEditor> ref = new WeakReference<>(editor);
+		data.painter.onDegraded(on -> showDegraded(data, ref.get(), on));
+		((ITextViewerExtension2) data.viewer).addPainter(data.painter);
+		// Activator.log("painter installed");
+	}
+
+	// defer the painter of a hidden editor, typically a background tab, until its widget
+	// is first painted; partVisible will usually attach it earlier
+	private void defer(Data data, AbstractTextEditor editor) {
+		if (data.deferral != null) return;
+
+		WeakReference<AbstractTextEditor> ref = new WeakReference<>(editor);
+		data.deferral = e -> {
+			AbstractTextEditor ed = ref.get();
+			data.cancelDeferral();
+			if (ed == null || records.get(ed) != data || data.painter != null) return;
+			if (!store.getBoolean(Pref.ENABLED) || !valid(data.type)) return;
+
+			// activation redraws, so the guides follow on the next paint
+			attach(data, ed);
+		};
+		data.viewer.getTextWidget().addPaintListener(data.deferral);
+	}
+
+	// indicate the reduced painting mode on the editor status line
+	// clears the message only on leaving the reduced mode, so as to leave the messages of
+	// other contributors in place
+	private void showDegraded(Data data, AbstractTextEditor editor, boolean degraded) {
+		if (editor == null || data.degraded == degraded) return;
+		data.degraded = degraded;
+
+		IStatusLineManager status = editor.getEditorSite().getActionBars().getStatusLineManager();
+		status.setMessage(degraded ? Messages.degraded_status : null);
+		if (degraded) Activator.log("reduced mode for '%s'", editor.getTitle());
+	}
+
+	private AbstractTextEditor activeEditor(IWorkbenchPart part) {
+		IEditorPart editor = null;
+
+		if (part instanceof FormEditor) {
+			editor = ((FormEditor) part).getActiveEditor();
+
+		} else if (part instanceof MultiPageEditorPart) {
+			try {
+				editor = Utils.invoke(part, ACTIVE_EDITOR);
+			} catch (Throwable e) {
+				Activator.log(e);
+			}
+
+		} else if (part instanceof IEditorPart) {
+			editor = (IEditorPart) part;
+		}
+
+		return (editor instanceof AbstractTextEditor) ? (AbstractTextEditor) editor : null;
+	}
+
+	private Data findRecord(IWorkbenchPart part, AbstractTextEditor editor) {
+		Data d = records.get(editor);
+		return d != null && d.part() == part ? d : null;
+	}
+
+	// drop the record of an editor whose widget is disposed; its painter is disposed
+	// with the widget
+	private void evict(AbstractTextEditor editor) {
+		if (editor == null) return;
+		Data d = records.remove(editor);
+		if (d != null) d.painter = null;
+	}
+
+	/** Returns the number of live painter records. */
+	public int liveRecords() {
+		return records.size();
+	}
+
+	private boolean valid(IContentType type) {
+		if (type == null) return false;
+		return !excludedTypeIds.contains(type.getId());
+	}
+
+	private IContentType typeOf(AbstractTextEditor editor) {
+		IDocumentProvider provider = editor.getDocumentProvider();
+		if (provider instanceof IDocumentProviderExtension4) {
+			try {
+				IContentType type = ((IDocumentProviderExtension4) provider)
+						.getContentType(editor.getEditorInput());
+				if (type != null) return type;
+			} catch (CoreException e) {
+				Activator.log(e);
+			}
+		}
+		return Utils.getPlatformTextType(Utils.UNKNOWN);
+	}
+
+	// private String srcname(AbstractTextEditor editor) {
+	// IEditorInput src = editor.getEditorInput();
+	// return src != null ? src.getName() : Utils.UNKNOWN;
+	// }
+
+	private void updateContentTypes() {
+		excludedTypeIds = Utils.undelimit(store.getString(Pref.CONTENT_TYPES));
+	}
+
+	// coalesce a burst of preference changes into a single refresh on the next event-loop turn
+	private void scheduleRefresh() {
+		if (refreshPending) return;
+		refreshPending = true;
+		PlatformUI.getWorkbench().getDisplay().asyncExec(() -> {
+			refreshPending = false;
+			refreshAll();
+		});
+	}
+
+	private void refreshAll() {
+		GuideConfig config = GuideConfig.publish(store);
+		int cnt = 0;
+		for (Data d : records.values()) {
+			if (d.painter != null && d.painter.configure(config)) cnt++;
+		}
+		if (cnt > 0) Activator.log("refreshAll... [%s of %s]", cnt, liveRecords());
+	}
+
+	// remove the records, and painters, of all editors of the given part
+	private void release(IWorkbenchPart part) {
+		for (Iterator<Data> itr = records.values().iterator(); itr.hasNext();) {
+			Data d = itr.next();
+			IWorkbenchPart owner = d.part();
+			if (owner == part || owner == null) {
+				d.removePainter();
+				itr.remove();
+			}
+		}
+	}
+
+	private void deactivate(Set<IContentType> types) {
+		for (Data d : records.values()) {
+			if (types.contains(d.type)) d.removePainter();
+		}
+	}
+
+	private void deactivateAll() {
+		for (Data d : records.values()) {
+			d.removePainter();
+		}
+	}
+
+	private class WindowWatcher extends WindowAdaptor {
+
+		@Override
+		public void windowOpened(IWorkbenchWindow window) {
+			window.getPartService().addPartListener(partWatcher);
+			initWorkbenchWindow(window);
+		}
+	}
+
+	private class PartWatcher extends PartAdaptor {
+
+		@Override
+		public void partOpened(IWorkbenchPartReference ref) {
+			IWorkbenchPart part = ref.getPart(false);
+			if (part instanceof MultiPageEditorPart || part instanceof AbstractTextEditor) {
+				installPainter(part);
+				// Activator.log("part opened '%s'", Utils.nameOf(part));
+			}
+		}
+
+		@Override
+		public void partVisible(IWorkbenchPartReference ref) {
+			IWorkbenchPart part = ref.getPart(false);
+			if (part instanceof MultiPageEditorPart || part instanceof AbstractTextEditor) {
+				installPainter(part);
+			}
+		}
+
+		@Override
+		public void partClosed(IWorkbenchPartReference ref) {
+			IWorkbenchPart part = ref.getPart(false);
+			if (part instanceof MultiPageEditorPart || part instanceof AbstractTextEditor) {
+				release(part);
+				// Activator.log("part closed '%s'", Utils.nameOf(part));
+			}
+		}
+
+		@Override
+		public void pageChanged(PageChangedEvent evt) {
+			IPageChangeProvider provider = evt.getPageChangeProvider();
+			if (provider instanceof MultiPageEditorPart) {
+				// Activator.log("MultiPageEditor page change '%s'",
+				// Utils.nameOf(provider));
+				installPainter((IWorkbenchPart) provider);
+			}
+		}
+	}
+
+	private class PropWatcher implements IPropertyChangeListener {
+
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			String prop = evt.getProperty();
+			Object old = evt.getOldValue();
+			Object now = evt.getNewValue();
+
+			if (prop.equals(IThemeManager.CHANGE_CURRENT_THEME)) {
+				// Activator.log("theme change '%s' [%s] => [%s]", prop, old, now);
+				ColorPool.invalidate();
+				scheduleRefresh();
+
+			} else if (prop.startsWith(Pref.KEY)) {
+				if (prop.equals(Pref.ENABLED)) {
+					// Activator.log("status change '%s' [%s] => [%s]", prop, old, now);
+					if ((boolean) now) {
+						initWorkbenchWindows();
+
+					} else {
+						deactivateAll();
+					}
+
+				} else if (prop.equals(Pref.CONTENT_TYPES)) {
+					updateContentTypes();
+
+					// Note: logic is reversed because it is an exclusion list
+					Delta<String> delta = Delta.of(Utils.undelimit((String) now),
+							Utils.undelimit((String) old));
+					if (delta.changed()) {
+						MsgBuilder mb = new MsgBuilder("content type change [%s]", prop);
+
+						if (delta.increased()) {
+							initWorkbenchWindows();
+							mb.nl().indent("enabled  [%s]", delta.added);
+						}
+
+						if (delta.decreased()) {
+							mb.nl().indent("disabled [%s]", delta.rmved);
+							deactivate(Utils.getPlatformTextType(delta.rmved));
+						}
+
+						Activator.log(mb.toString());
+					}
+
+					// } else {
+					// Activator.log("property change '%s' [%s] => [%s]", prop, old, now);
+				}
+
+				scheduleRefresh();
+			}
+		}
+	}
+
+	/**
+	 * Startup work, run as resumable units across UI event-loop turns. Each slice runs
+	 * units until the slice budget is spent, then yields to the event loop; at least one
+	 * unit runs per slice. Units may queue further units.
+	 */
+	private class StartupRun implements Runnable {
+
+		private final Deque<Unit> units = new ArrayDeque<>();
+		/** Busy time and unit count by unit kind */
+		private final Map<String, long[]> times = new LinkedHashMap<>();
+		private final long started = System.nanoTime();
+
+		private int slices;
+		private int done;
+		private long busy;
+		private long maxSlice;
+
+		StartupRun() {
+			add(SETUP, () -> startup(this));
+		}
+
+		void add(String kind, Runnable work) {
+			units.add(new Unit(kind, work));
+		}
+
+		@Override
+		public void run() {
+			Display display = PlatformUI.getWorkbench().getDisplay();
+			if (display.isDisposed()) return;
+
+			long beg = System.nanoTime();
+			long limit = beg + SLICE_NANOS;
+			long now = beg;
+			do {
+				Unit unit = units.poll();
+				try {
+					unit.work.run();
+				} catch (Throwable e) {
+					Activator.log(e);
+				}
+				long end = System.nanoTime();
+				long[] time = times.computeIfAbsent(unit.kind, k -> new long[2]);
+				time[0] += end - now;
+				time[1]++;
+				done++;
+				now = end;
+			} while (!units.isEmpty() && now < limit);
+
+			slices++;
+			busy += now - beg;
+			maxSlice = Math.max(maxSlice, now - beg);
+
+			if (!units.isEmpty()) {
+				display.asyncExec(this);
+			} else {
+				report();
+			}
+		}
+
+		private void report() {
+			MsgBuilder mb = new MsgBuilder("startup complete [%s units in %s slices]", done, slices);
+			mb.nl().indent("elapsed  %.1f ms", ms(System.nanoTime() - started));
+			mb.nl().indent("busy     %.1f ms (max slice %.1f ms)", ms(busy), ms(maxSlice));
+			times.forEach((kind, time) -> mb.nl().indent("%-8s %.1f ms [%s]", kind, ms(time[0]), time[1]));
+			Activator.log(mb);
+		}
+
+		private double ms(long nanos) {
+			return nanos / 1_000_000.0;
+		}
+	}
+
+	/** One startup unit of work. */
+	private static class Unit {
+		final String kind;
+		final Runnable work;
+
+		Unit(String kind, Runnable work) {
+			this.kind = kind;
+			this.work = work;
+		}
+	}
+
+	/**
+	 * Painter record of one editor. Holds its part weakly; the record itself is evicted
+	 * when the part closes or the editor widget is disposed.
+	 */
+	private static class Data {
+		final WeakReference<IWorkbenchPart> part;
+		final IContentType type;
+		final ISourceViewer viewer;
+		final Map<String, List<String>> prefixes;
+
+		GuidePainter painter;
+		/** First paint listener pending a deferred painter install */
+		PaintListener deferral;
+		/** Reduced mode shown on the editor status line */
+		boolean degraded;
+
+		Data(IWorkbenchPart part, IContentType type, ISourceViewer viewer, Map<String, List<String>> prefixes) {
+			this.part = new WeakReference<>(part);
+			this.type = type;
+			this.viewer = viewer;
+			this.prefixes = prefixes;
+		}
+
+		IWorkbenchPart part() {
+			return part.get();
+		}
+
+		void cancelDeferral() {
+			if (deferral != null) {
+				StyledText widget = viewer.getTextWidget();
+				if (widget != null && !widget.isDisposed()) widget.removePaintListener(deferral);
+				deferral = null;
+			}
+		}
+
+		void removePainter() {
+			cancelDeferral();
+			if (painter != null) {
+				((ITextViewerExtension2) viewer).removePainter(painter);
+				painter = null;
+			}
+		}
+	}
+}
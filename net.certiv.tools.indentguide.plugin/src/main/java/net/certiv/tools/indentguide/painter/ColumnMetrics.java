@@ -0,0 +1,150 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+
+import net.certiv.tools.indentguide.util.Utils;
+
+/**
+ * Column to pixel offset cache for the leading whitespace of a widget line. Keyed by the
+ * widget font, tab width, and zoom level; recomputed whenever any of these change.
+ * <p>
+ * Leading whitespace consists only of spaces and tabs. For a fixed pitch font, the X
+ * offset of a visual column is therefore the column times the space width. The cache
+ * reports itself unusable for fonts where that does not hold, leaving the caller to
+ * query the widget directly.
+ * <p>
+ * The measured metrics are held in a registry shared by all painters. Fonts are device
+ * resources, so entries are effectively per display; they are weakly keyed on the font,
+ * and released once the font is no longer referenced. Accessed on the UI thread only.
+ */
+class ColumnMetrics {
+
+	// reference glyphs for detecting a fixed pitch font
+	private static final String NARROW = "i"; // $NON-NLS-1$
+	private static final String WIDE = "W"; // $NON-NLS-1$
+
+	/** Shared metrics by font, then by tab width and zoom */
+	private static final Map<Font, Map<Long, Metrics>> REGISTRY = new WeakHashMap<>();
+
+	/** Measured metrics of one font, tab width, and zoom level. */
+	private static class Metrics {
+
+		/** Fixed pitch font */
+		final boolean fixed;
+		/** Space character width in pixels */
+		final int charWidth;
+		/** X pixel offsets by column */
+		int[] locs = new int[0];
+
+		Metrics(boolean fixed, int charWidth) {
+			this.fixed = fixed;
+			this.charWidth = charWidth;
+		}
+
+		int loc(int col) {
+			if (col >= locs.length) grow(col);
+			return locs[col];
+		}
+
+		private void grow(int col) {
+			int len = locs.length;
+			locs = Arrays.copyOf(locs, Math.max(col + 1, len * 2));
+			for (int idx = len; idx < locs.length; idx++) {
+				locs[idx] = idx * charWidth;
+			}
+		}
+	}
+
+	private Font font;
+	private int tabWidth;
+	private int zoom;
+	/** Incremented on each change of metrics */
+	private int stamp;
+
+	private Metrics metrics;
+
+	/**
+	 * Revalidates the cache against the current state of the given widget.
+	 *
+	 * @param widget the text widget
+	 * @return {@code true} if column offsets can be computed from font metrics
+	 */
+	boolean update(StyledText widget) {
+		Font font = widget.getFont();
+		int tabWidth = widget.getTabs();
+		int zoom = widget.getMonitor().getZoom();
+		if (metrics == null || font != this.font || tabWidth != this.tabWidth || zoom != this.zoom) {
+			this.font = font;
+			this.tabWidth = tabWidth;
+			this.zoom = zoom;
+			metrics = lookup(widget, font, tabWidth, zoom);
+			stamp++;
+		}
+		return metrics.fixed;
+	}
+
+	/** Returns a value that changes whenever the cached metrics change. */
+	int stamp() {
+		return stamp;
+	}
+
+	/**
+	 * Returns the X pixel offset of the given visual column relative to the line start.
+	 * Valid only where {@link #update} last returned {@code true}.
+	 *
+	 * @param col visual column (0..n)
+	 * @return X pixel offset
+	 */
+	int loc(int col) {
+		return metrics.loc(col);
+	}
+
+	/** Returns the number of fonts having registered metrics. */
+	static int registered() {
+		return REGISTRY.size();
+	}
+
+	private static Metrics lookup(StyledText widget, Font font, int tabWidth, int zoom) {
+		Map<Long, Metrics> byFont = REGISTRY.computeIfAbsent(font, f -> new HashMap<>(2));
+		long key = (long) tabWidth << 32 | zoom;
+		Metrics metrics = byFont.get(key);
+		if (metrics == null) {
+			metrics = measure(widget, font, tabWidth);
+			byFont.put(key, metrics);
+		}
+		return metrics;
+	}
+
+	private static Metrics measure(StyledText widget, Font font, int tabWidth) {
+		GC gc = new GC(widget);
+		try {
+			gc.setFont(font);
+			int charWidth = gc.stringExtent(Utils.SPACE).x;
+
+			// exclude proportional fonts and fractional width accumulation
+			int span = Math.max(tabWidth, 1) * 8;
+			boolean fixed = charWidth > 0 //
+					&& gc.stringExtent(NARROW).x == gc.stringExtent(WIDE).x
+					&& gc.stringExtent(Utils.SPACE.repeat(span)).x == charWidth * span;
+			return new Metrics(fixed, charWidth);
+
+		} finally {
+			gc.dispose();
+		}
+	}
+}
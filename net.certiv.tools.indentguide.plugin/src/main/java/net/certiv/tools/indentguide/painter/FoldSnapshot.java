@@ -0,0 +1,168 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelListener;
+import org.eclipse.jface.text.source.projection.IProjectionListener;
+import org.eclipse.jface.text.source.projection.ProjectionAnnotation;
+import org.eclipse.jface.text.source.projection.ProjectionAnnotationModel;
+import org.eclipse.jface.text.source.projection.ProjectionViewer;
+
+import net.certiv.tools.indentguide.util.Utils;
+
+/**
+ * Snapshot of the collapsed projection regions of a viewer. Built from the collapsed
+ * projection annotations once per projection change, rather than by two projection
+ * conversions per painted line.
+ * <p>
+ * The snapshot is rebuilt on the first query following a change in the projection
+ * annotation model or in projection enablement. It holds the positions of the collapsed
+ * regions, which the document updates on edit, so text changes do not invalidate it.
+ * Viewers without projection support are queried directly.
+ */
+class FoldSnapshot implements IProjectionListener, IAnnotationModelListener {
+
+	private static final Position[] NONE = {};
+
+	private final ITextViewer viewer;
+	private final ProjectionViewer projection;
+
+	/** Collapsed regions, ordered by offset */
+	private Position[] regions = NONE;
+	/** Annotation model listened to */
+	private IAnnotationModel annotations;
+
+	private boolean connected;
+	private boolean valid;
+
+	FoldSnapshot(ITextViewer viewer) {
+		this.viewer = viewer;
+		projection = viewer instanceof ProjectionViewer ? (ProjectionViewer) viewer : null;
+	}
+
+	/** Starts tracking projection enablement and annotation changes. */
+	void connect() {
+		if (projection != null && !connected) {
+			projection.addProjectionListener(this);
+			listen(projection.getProjectionAnnotationModel());
+			connected = true;
+		}
+		valid = false;
+	}
+
+	/** Stops tracking projection enablement and annotation changes. */
+	void disconnect() {
+		if (projection != null && connected) {
+			projection.removeProjectionListener(this);
+			listen(null);
+			connected = false;
+		}
+		regions = NONE;
+		valid = false;
+	}
+
+	/** Discards the snapshot. */
+	void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * Returns {@code true} if the given widget line is the visible head of a folded
+	 * region.
+	 *
+	 * @param line widget line number
+	 */
+	boolean isFolded(int line) {
+		if (projection == null) return Utils.isFolded(viewer, line);
+		if (!valid) build();
+		if (regions.length == 0) return false;
+
+		IDocument doc = projection.getDocument();
+		int num = projection.widgetLine2ModelLine(line);
+		if (doc == null || num < 0) return false;
+
+		try {
+			IRegion info = doc.getLineInformation(num);
+			int beg = info.getOffset();
+			int end = beg + info.getLength();
+
+			// first region starting at or after the line start
+			int lo = 0;
+			int hi = regions.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (regions[mid].getOffset() < beg) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			for (; lo < regions.length && regions[lo].getOffset() <= end; lo++) {
+				Position pos = regions[lo];
+				if (!pos.isDeleted() && projection.modelLine2WidgetLine(num + 1) == -1) return true;
+			}
+		} catch (BadLocationException e) {}
+		return false;
+	}
+
+	private void build() {
+		valid = true;
+		regions = NONE;
+
+		ProjectionAnnotationModel model = projection.getProjectionAnnotationModel();
+		if (model == null || !projection.isProjectionMode()) return;
+
+		List<Position> found = new ArrayList<>();
+		for (Iterator<Annotation> itr = model.getAnnotationIterator(); itr.hasNext();) {
+			Annotation ann = itr.next();
+			if (!(ann instanceof ProjectionAnnotation) || !((ProjectionAnnotation) ann).isCollapsed()) continue;
+
+			Position pos = model.getPosition(ann);
+			if (pos != null && !pos.isDeleted() && pos.getLength() > 0) found.add(pos);
+		}
+		found.sort(Comparator.comparingInt(Position::getOffset));
+		regions = found.toArray(NONE);
+	}
+
+	// moves the annotation listener to the given model
+	private void listen(IAnnotationModel model) {
+		if (annotations == model) return;
+		if (annotations != null) annotations.removeAnnotationModelListener(this);
+		annotations = model;
+		if (annotations != null) annotations.addAnnotationModelListener(this);
+	}
+
+	@Override
+	public void modelChanged(IAnnotationModel model) {
+		valid = false;
+	}
+
+	@Override
+	public void projectionEnabled() {
+		listen(projection.getProjectionAnnotationModel());
+		valid = false;
+	}
+
+	@Override
+	public void projectionDisabled() {
+		valid = false;
+	}
+}
@@ -0,0 +1,161 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Arrays;
+
+/**
+ * Optional cache of the computed guide layer for a window of widget lines around the
+ * viewport. Each cached line holds its guide segments relative to the line top, so a
+ * vertical scroll leaves the cache valid: lines scrolled back into view are replayed,
+ * and only the newly exposed lines are computed.
+ * <p>
+ * The cache is keyed by the column metrics, horizontal scroll position, and line
+ * spacing, and must be invalidated on any text, font, theme, or preference change.
+ */
+class GuideLayer {
+
+	/** Maximum number of cached lines */
+	private static final int MAX = 1024;
+	/** Initial per-line segment capacity; three ints per segment */
+	private static final int SEGS = 3 * 8;
+
+	/** Segment data by slot: x, top, bottom triples */
+	private final int[][] segs = new int[MAX][];
+	/** Segment data length by slot */
+	private final int[] lens = new int[MAX];
+
+	/** Widget line of slot 0 */
+	private int base;
+	/** Number of cached lines */
+	private int size;
+
+	private boolean valid;
+	private int metricsStamp;
+	private int hpix;
+	private int spacing;
+
+	/** Line being recorded; {@code -1} if none */
+	private int recLine = -1;
+	/** Recording buffer */
+	private int[] rec = new int[SEGS];
+	private int recLen;
+
+	/** Discards all cached lines. */
+	void invalidate() {
+		valid = false;
+		size = 0;
+	}
+
+	/**
+	 * Revalidates the cache against the given key values, discarding all cached lines on
+	 * any mismatch.
+	 *
+	 * @param metricsStamp column metrics stamp
+	 * @param hpix         horizontal scroll pixel
+	 * @param spacing      line spacing
+	 */
+	void validate(int metricsStamp, int hpix, int spacing) {
+		if (!valid || metricsStamp != this.metricsStamp || hpix != this.hpix || spacing != this.spacing) {
+			this.metricsStamp = metricsStamp;
+			this.hpix = hpix;
+			this.spacing = spacing;
+			size = 0;
+			valid = true;
+		}
+	}
+
+	/** Returns {@code true} if the given widget line is cached. */
+	boolean has(int line) {
+		return valid && line >= base && line < base + size;
+	}
+
+	/**
+	 * Replays the cached segments of the given line into the given stroke collector.
+	 *
+	 * @param line    widget line number
+	 * @param y0      current Y pixel of the line top
+	 * @param strokes stroke collector
+	 */
+	void replay(int line, int y0, GuideStrokes strokes) {
+		int slot = line - base;
+		int[] data = segs[slot];
+		for (int idx = 0, len = lens[slot]; idx < len; idx += 3) {
+			strokes.add(data[idx], y0 + data[idx + 1], y0 + data[idx + 2]);
+		}
+	}
+
+	/** Starts recording the segments of the given widget line. */
+	void begin(int line) {
+		recLine = line;
+		recLen = 0;
+	}
+
+	/**
+	 * Records a segment for the line being recorded. Ignored if not recording.
+	 *
+	 * @param x   X coordinate
+	 * @param top top Y coordinate relative to the line top
+	 * @param bot bottom Y coordinate relative to the line top
+	 */
+	void add(int x, int top, int bot) {
+		if (recLine < 0) return;
+		if (recLen + 3 > rec.length) rec = Arrays.copyOf(rec, rec.length * 2);
+		rec[recLen++] = x;
+		rec[recLen++] = top;
+		rec[recLen++] = bot;
+	}
+
+	/** Stores the recorded segments as the cached content of the line being recorded. */
+	void commit() {
+		if (recLine < 0 || !valid) return;
+		int slot = slotFor(recLine);
+		int[] data = segs[slot];
+		if (data == null || data.length < recLen) {
+			data = segs[slot] = new int[Math.max(recLen, SEGS)];
+		}
+		System.arraycopy(rec, 0, data, 0, recLen);
+		lens[slot] = recLen;
+		recLine = -1;
+	}
+
+	// find or make the slot for the given line; keeps the cached lines contiguous
+	private int slotFor(int line) {
+		if (size == 0 || line < base - 1 || line > base + size) {
+			base = line;
+			size = 1;
+			return 0;
+		}
+
+		if (line == base - 1) { // prepend; drop the last where full
+			if (size == MAX) size--;
+			int[] spare = segs[size];
+			System.arraycopy(segs, 0, segs, 1, size);
+			System.arraycopy(lens, 0, lens, 1, size);
+			segs[0] = spare;
+			base--;
+			size++;
+			return 0;
+		}
+
+		if (line == base + size) { // append; drop the first where full
+			if (size == MAX) {
+				int[] spare = segs[0];
+				System.arraycopy(segs, 1, segs, 0, size - 1);
+				System.arraycopy(lens, 1, lens, 0, size - 1);
+				segs[size - 1] = spare;
+				base++;
+				return size - 1;
+			}
+			return size++;
+		}
+
+		return line - base;
+	}
+}
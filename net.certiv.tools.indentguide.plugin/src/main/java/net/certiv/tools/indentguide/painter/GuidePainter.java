@@ -1,257 +1,558 @@
-/******************************************************************************
- * Copyright (c) 2006-2024 The IndentGuide Authors.
- * All rights reserved.
- *
- * This program and the accompanying materials are made available under the
- * terms of the MIT License.  A copy of the MIT License is included this
- * distribution and is available at https://opensource.org/licenses/MIT.
- *****************************************************************************/
-package net.certiv.tools.indentguide.painter;
-
-import java.util.List;
-import java.util.Map;
-
-import org.eclipse.jface.preference.IPreferenceStore;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IPaintPositionManager;
-import org.eclipse.jface.text.IPainter;
-import org.eclipse.jface.text.IRegion;
-import org.eclipse.jface.text.ITextViewer;
-import org.eclipse.swt.custom.StyledText;
-import org.eclipse.swt.custom.StyledTextContent;
-import org.eclipse.swt.events.PaintEvent;
-import org.eclipse.swt.events.PaintListener;
-import org.eclipse.swt.graphics.Color;
-import org.eclipse.swt.graphics.GC;
-import org.eclipse.swt.graphics.LineAttributes;
-import org.eclipse.swt.graphics.Point;
-import org.eclipse.swt.graphics.Rectangle;
-
-import net.certiv.tools.indentguide.Activator;
-import net.certiv.tools.indentguide.preferences.Pref;
-import net.certiv.tools.indentguide.util.Utils;
-
-/**
- * A painter for drawing visible indent guide lines.
- *
- * @see org.eclipse.jface.text.WhitespaceCharacterPainter
- * @see org.eclipse.ui.texteditor.ShowWhitespaceCharactersAction
- */
-public class GuidePainter implements IPainter, PaintListener {
-
-	private ITextViewer viewer;
-	private Map<String, List<String>> prefixMap;
-	private StyledText widget;
-
-	private boolean advanced;
-	private IPreferenceStore store;
-
-	private boolean active;
-	private int lineAlpha;
-	private int lineStyle;
-	private int lineWidth;
-	private int lineShift;
-	private Color lineColor;
-	private boolean drawLeadEdge;
-	private boolean drawBlankLn;
-	private boolean drawComment;
-
-	/**
-	 * Creates a new painter for the given text viewer.
-	 *
-	 * @param viewer    text viewer using this painter
-	 * @param prefixMap line prefixes for the associated partition type
-	 */
-	public GuidePainter(ITextViewer viewer, Map<String, List<String>> prefixMap) {
-		this.viewer = viewer;
-		this.prefixMap = prefixMap;
-		widget = viewer.getTextWidget();
-		advanced = Utils.setAdvanced(widget);
-		store = Activator.getDefault().getPreferenceStore();
-
-		loadPrefs();
-	}
-
-	@Override
-	public void paint(int reason) {
-		IDocument doc = viewer.getDocument();
-		if (doc == null) {
-			deactivate(false);
-			return;
-		}
-
-		if (!active) {
-			active = true;
-			widget.addPaintListener(this);
-			redrawAll();
-
-		} else if (reason == CONFIGURATION || reason == INTERNAL) {
-			redrawAll();
-
-		} else if (reason == TEXT_CHANGE) { // redraw current line only
-			try {
-				int docOffset = Utils.docOffset(viewer, widget.getCaretOffset());
-				IRegion region = doc.getLineInformationOfOffset(docOffset);
-				int offset = Utils.widgetOffset(viewer, region.getOffset());
-				int cnt = widget.getCharCount();
-				int len = Math.min(region.getLength(), cnt - offset);
-				if (offset >= 0 && len > 0) {
-					widget.redrawRange(offset, len, true);
-				}
-			} catch (BadLocationException e) {}
-		}
-	}
-
-	/** Request a redraw of all visible content. */
-	public void redrawAll() {
-		widget.redraw();
-	}
-
-	@Override
-	public void paintControl(PaintEvent evt) {
-		if (widget != null) {
-			handleDrawRequest(evt.gc, evt.x, evt.y, evt.width, evt.height);
-		}
-	}
-
-	// Draw characters in view range.
-	private void handleDrawRequest(GC gc, int x, int y, int w, int h) {
-		int begLine = widget.getLineIndex(y);
-		int endLine = widget.getLineIndex(y + h - 1);
-
-		// Activator.log("draw request @(%s:%s)", begLine + 1, endLine + 1);
-
-		if (begLine <= endLine && begLine < widget.getLineCount()) {
-
-			// collect state
-			Color color = gc.getForeground();
-			LineAttributes attributes = gc.getLineAttributes();
-			Rectangle clipping = gc.getClipping();
-
-			// adjust the client area
-			Rectangle clientArea = widget.getClientArea();
-			int leftMargin = widget.getLeftMargin();
-			int rightMargin = widget.getRightMargin();
-			clientArea.x += leftMargin;
-			clientArea.width -= leftMargin + rightMargin;
-			clipping.intersect(clientArea);
-			gc.setClipping(clientArea);
-
-			// draw guides
-			gc.setForeground(lineColor);
-			gc.setLineStyle(lineStyle);
-			gc.setLineWidth(lineWidth);
-			if (advanced) {
-				int alpha = gc.getAlpha();
-				gc.setAlpha(lineAlpha);
-				drawLineRange(gc, begLine, endLine, x, w);
-				gc.setAlpha(alpha);
-			} else {
-				drawLineRange(gc, begLine, endLine, x, w);
-			}
-
-			// restore state
-			gc.setClipping(clipping);
-			gc.setForeground(color);
-			gc.setLineAttributes(attributes);
-		}
-	}
-
-	/**
-	 * Draw the given line range.
-	 *
-	 * @param gc      the GC
-	 * @param begLine first line number
-	 * @param endLine last line number (inclusive)
-	 * @param x       the X-coordinate of the drawing range
-	 * @param w       the width of the drawing range
-	 */
-	private void drawLineRange(GC gc, int begLine, int endLine, int x, int w) {
-		int tabWidth = widget.getTabs();
-		StyledTextContent content = widget.getContent();
-
-		for (int lnNum = begLine; lnNum <= endLine; lnNum++) {
-			int offset = widget.getOffsetAtLine(lnNum);
-			int height = widget.getLineHeight(offset);
-			int spacing = widget.getLineSpacing();
-
-			int docLnNum = content.getLineAtOffset(offset); // 1..n
-			if (!Utils.isFolded(viewer, docLnNum)) {
-				Line line = new Line(viewer, widget, prefixMap, lnNum, tabWidth);
-
-				for (Pos stop : line) {
-					if (LineRules.skipPos(line, stop, drawLeadEdge, drawBlankLn, drawComment)) continue;
-
-					boolean asc = stop.col >= line.lastStopCol();
-					Point pos = widget.getLocationAtOffset(offset);
-					int hx = widget.getHorizontalBar().getSelection();
-					draw(gc, pos, stop.loc + hx, spacing, height, asc);
-				}
-			}
-		}
-	}
-
-	private void draw(GC gc, Point pos, int loc, int sp, int ht, boolean asc) {
-		pos.x += loc + lineShift;
-		if (asc) {
-			gc.drawLine(pos.x, pos.y - sp, pos.x, pos.y + ht + sp);
-		} else {
-			gc.drawLine(pos.x, pos.y, pos.x, pos.y + ht + sp);
-		}
-	}
-
-	public void loadPrefs() {
-		lineAlpha = store.getInt(Pref.LINE_ALPHA);
-		lineStyle = store.getInt(Pref.LINE_STYLE);
-		lineWidth = store.getInt(Pref.LINE_WIDTH);
-		lineShift = store.getInt(Pref.LINE_SHIFT);
-
-		disposeLineColor();
-		lineColor = Utils.getColor(store);
-
-		drawLeadEdge = store.getBoolean(Pref.DRAW_LEAD_EDGE);
-		drawBlankLn = store.getBoolean(Pref.DRAW_BLANK_LINE);
-		drawComment = store.getBoolean(Pref.DRAW_COMMENT_BLOCK);
-	}
-
-	public boolean isActive() {
-		return active;
-	}
-
-	public void activate(boolean redraw) {
-		if (!active) {
-			active = true;
-			widget.addPaintListener(this);
-			if (redraw) redrawAll();
-		}
-	}
-
-	@Override
-	public void deactivate(boolean redraw) {
-		if (active) {
-			active = false;
-			widget.removePaintListener(this);
-			if (redraw) redrawAll();
-		}
-	}
-
-	@Override
-	public void dispose() {
-		store = null;
-		viewer = null;
-		widget = null;
-
-		disposeLineColor();
-	}
-
-	private void disposeLineColor() {
-		if (lineColor != null) {
-			lineColor.dispose();
-			lineColor = null;
-		}
-	}
-
-	@Override
-	public void setPositionManager(IPaintPositionManager manager) {}
-}
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IPaintPositionManager;
+import org.eclipse.jface.text.IPainter;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.custom.StyledTextContent;
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.events.PaintListener;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Rectangle;
+
+import net.certiv.tools.indentguide.preferences.GuideConfig;
+import net.certiv.tools.indentguide.util.ColorPool;
+import net.certiv.tools.indentguide.util.Utils;
+
+/**
+ * A painter for drawing visible indent guide lines.
+ *
+ * @see org.eclipse.jface.text.WhitespaceCharacterPainter
+ * @see org.eclipse.ui.texteditor.ShowWhitespaceCharactersAction
+ */
+public class GuidePainter implements IPainter, PaintListener {
+
+	private ITextViewer viewer;
+	private Map<String, List<String>> prefixMap;
+	private StyledText widget;
+	private IndentModel model;
+	/** Damage of the shared model, consumed by this painter */
+	private LineDamage damage;
+	private final Runnable onModelReady = () -> {
+		updateDegraded();
+		redrawAll();
+	};
+	private final ColumnMetrics metrics = new ColumnMetrics();
+	private final LineState state = new LineState();
+	private final GuideStrokes strokes = new GuideStrokes();
+	private GuideLayer layer;
+	private final RedrawScheduler scheduler;
+	private final FoldSnapshot folds;
+
+	private boolean advanced;
+	/** Applied preference snapshot */
+	private GuideConfig config;
+
+	private boolean active;
+	private int lineAlpha;
+	private int lineStyle;
+	private int lineWidth;
+	private int lineShift;
+	/** Borrowed from the color pool; not disposed */
+	private Color lineColor;
+	private boolean drawLeadEdge;
+	private boolean drawBlankLn;
+	private boolean drawComment;
+	private int largeLines;
+	private int largeLineLen;
+	private int scanDist;
+
+	private boolean degraded;
+	private Consumer<Boolean> onDegraded;
+
+	// scratch geometry of the widget lines painted from indent blocks
+	private int[] tops = new int[0];
+	private int[] bots = new int[0];
+	/** Last line of the contiguous plain line run by range index; {@code -1} if not plain */
+	private int[] runs = new int[0];
+
+	/**
+	 * Creates a new painter for the given text viewer.
+	 *
+	 * @param viewer    text viewer using this painter
+	 * @param prefixMap line prefixes for the associated partition type
+	 */
+	public GuidePainter(ITextViewer viewer, Map<String, List<String>> prefixMap) {
+		this.viewer = viewer;
+		this.prefixMap = prefixMap;
+		widget = viewer.getTextWidget();
+		advanced = Utils.setAdvanced(widget);
+		scheduler = new RedrawScheduler(widget.getDisplay(), this::flushRedraw);
+		folds = new FoldSnapshot(viewer);
+
+		configure(GuideConfig.current());
+	}
+
+	@Override
+	public void paint(int reason) {
+		IDocument doc = viewer.getDocument();
+		if (doc == null) {
+			deactivate(false);
+			return;
+		}
+
+		if (!active) {
+			active = true;
+			widget.addPaintListener(this);
+			folds.connect();
+			connectModel(doc);
+			redrawAll();
+			return;
+		}
+
+		if (model == null || !model.isFor(doc, widget.getTabs())) {
+			connectModel(doc);
+		}
+
+		if (reason == CONFIGURATION || reason == INTERNAL) {
+			invalidateCaches();
+			redrawAll();
+
+		} else if (reason == TEXT_CHANGE) { // redraw damaged lines only
+			if (layer != null) layer.invalidate(); // folds track their own changes
+			updateDegraded();
+			if (!model.isReady()) {
+				scheduler.requestAll(); // painted on demand
+			} else if (damage.has()) {
+				scheduler.request();
+			}
+		}
+	}
+
+	/**
+	 * Request a redraw of all visible content. Requests are coalesced and performed once
+	 * on the next UI event-loop turn.
+	 */
+	public void redrawAll() {
+		scheduler.requestAll();
+	}
+
+	/** Returns {@code true} if painting in the reduced mode for large files. */
+	public boolean isDegraded() {
+		return degraded;
+	}
+
+	/**
+	 * Sets the action to run, with the new state, when painting enters or leaves the
+	 * reduced mode for large files.
+	 */
+	public void onDegraded(Consumer<Boolean> action) {
+		onDegraded = action;
+	}
+
+	private void updateDegraded() {
+		boolean now = model != null && model.isDegraded();
+		if (now != degraded) {
+			degraded = now;
+			if (onDegraded != null) onDegraded.accept(now);
+		}
+	}
+
+	/** Returns the number of redraw requests merged into an already pending redraw. */
+	public int coalescedRedraws() {
+		return scheduler.coalesced();
+	}
+
+	// perform the accumulated redraw requests
+	private void flushRedraw() {
+		if (widget == null || widget.isDisposed()) return;
+
+		IDocument doc = viewer.getDocument();
+		if (scheduler.isAll() || model == null || doc == null) {
+			if (damage != null) damage.clear();
+			widget.redraw();
+
+		} else if (damage.has()) {
+			redrawLines(doc, damage.beg(), damage.end());
+			damage.clear();
+		}
+	}
+
+	/**
+	 * Request a redraw of the full width of the visible part of the given document line
+	 * range. Unlike a text range redraw, this includes the guides on blank lines.
+	 *
+	 * @param doc the document
+	 * @param beg first document line
+	 * @param end last document line (inclusive)
+	 */
+	private void redrawLines(IDocument doc, int beg, int end) {
+		try {
+			int offset = doc.getLineOffset(beg);
+			IRegion last = doc.getLineInformation(end);
+			IRegion range = Utils.widgetRange(viewer, offset, last.getOffset() + last.getLength() - offset);
+			if (range == null) return;
+
+			int cnt = widget.getCharCount();
+			int begLine = widget.getLineAtOffset(Math.min(range.getOffset(), cnt));
+			int endLine = widget.getLineAtOffset(Math.min(range.getOffset() + range.getLength(), cnt));
+
+			int spacing = widget.getLineSpacing();
+			int top = widget.getLinePixel(begLine) - spacing;
+			int bot = widget.getLinePixel(endLine) + widget.getLineHeight(widget.getOffsetAtLine(endLine)) + spacing;
+
+			Rectangle area = widget.getClientArea();
+			top = Math.max(top, 0);
+			bot = Math.min(bot, area.height);
+			if (top < bot) widget.redraw(0, top, area.width, bot - top, false);
+
+		} catch (BadLocationException | IllegalArgumentException e) {}
+	}
+
+	@Override
+	public void paintControl(PaintEvent evt) {
+		if (widget != null) {
+			handleDrawRequest(evt.gc, evt.x, evt.y, evt.width, evt.height);
+		}
+	}
+
+	// Draw characters in view range.
+	private void handleDrawRequest(GC gc, int x, int y, int w, int h) {
+		int begLine = widget.getLineIndex(y);
+		int endLine = widget.getLineIndex(y + h - 1);
+
+		// Activator.log("draw request @(%s:%s)", begLine + 1, endLine + 1);
+
+		if (begLine <= endLine && begLine < widget.getLineCount()) {
+
+			// collect state
+			Color color = gc.getForeground();
+			int style = gc.getLineStyle();
+			int width = gc.getLineWidth();
+			Rectangle clipping = gc.getClipping();
+
+			// adjust the client area
+			Rectangle clientArea = widget.getClientArea();
+			int leftMargin = widget.getLeftMargin();
+			int rightMargin = widget.getRightMargin();
+			clientArea.x += leftMargin;
+			clientArea.width -= leftMargin + rightMargin;
+			clipping.intersect(clientArea);
+			gc.setClipping(clientArea);
+
+			// draw guides
+			gc.setForeground(lineColor);
+			gc.setLineStyle(lineStyle);
+			gc.setLineWidth(lineWidth);
+			if (advanced) {
+				int alpha = gc.getAlpha();
+				gc.setAlpha(lineAlpha);
+				drawLineRange(gc, begLine, endLine, x, w);
+				gc.setAlpha(alpha);
+			} else {
+				drawLineRange(gc, begLine, endLine, x, w);
+			}
+
+			// restore state
+			gc.setClipping(clipping);
+			gc.setForeground(color);
+			gc.setLineStyle(style);
+			gc.setLineWidth(width);
+		}
+	}
+
+	/**
+	 * Draw the given line range.
+	 *
+	 * @param gc      the GC
+	 * @param begLine first line number
+	 * @param endLine last line number (inclusive)
+	 * @param x       the X-coordinate of the drawing range
+	 * @param w       the width of the drawing range
+	 */
+	private void drawLineRange(GC gc, int begLine, int endLine, int x, int w) {
+		collect(begLine, endLine, true).flush(gc, advanced);
+	}
+
+	/**
+	 * Collects the guide strokes of the given line range; drawn on flush.
+	 *
+	 * @param begLine first line number
+	 * @param endLine last line number (inclusive)
+	 * @param blocks  {@code true} to draw plain lines from the indent blocks, where
+	 *                applicable
+	 * @return the collected strokes
+	 */
+	GuideStrokes collect(int begLine, int endLine, boolean blocks) {
+		int tabWidth = widget.getTabs();
+		StyledTextContent content = widget.getContent();
+		ColumnMetrics cm = metrics.update(widget) ? metrics : null;
+
+		int spacing = widget.getLineSpacing();
+		int margin = widget.getLeftMargin() - widget.getHorizontalPixel();
+		int hx = widget.getHorizontalBar().getSelection();
+		if (layer != null) layer.validate(metrics.stamp(), widget.getHorizontalPixel(), spacing);
+
+		// the layer caches per-line segments, so excludes the block path
+		if (blocks && layer == null && cm != null && !degraded
+				&& drawBlocks(begLine, endLine, tabWidth, cm, margin, hx)) {
+			return strokes;
+		}
+
+		for (int lnNum = begLine; lnNum <= endLine; lnNum++) {
+			if (layer != null) {
+				if (layer.has(lnNum)) {
+					layer.replay(lnNum, widget.getLinePixel(lnNum), strokes);
+					continue;
+				}
+				layer.begin(lnNum);
+			}
+
+			int offset = widget.getOffsetAtLine(lnNum);
+			int docLnNum = content.getLineAtOffset(offset); // 1..n
+			if (!folds.isFolded(docLnNum)) {
+				int height = widget.getLineHeight(offset);
+				int x0 = margin + widget.getLineIndent(lnNum);
+				int y0 = widget.getLinePixel(lnNum);
+				fillState(lnNum, tabWidth, cm, x0);
+
+				for (int idx = 0, cnt = state.stopCnt(); idx < cnt; idx++) {
+					if (LineRules.skipStop(state, idx, drawLeadEdge, drawBlankLn, drawComment)) continue;
+
+					boolean asc = state.col(idx) >= state.lastStopCol();
+					draw(x0, y0, state.loc(idx) + hx, spacing, height, asc);
+				}
+			}
+
+			if (layer != null) layer.commit();
+		}
+		return strokes;
+	}
+
+	/**
+	 * Draws the given line range using the indent blocks of the model: plain lines are
+	 * drawn from the blocks crossing the range, one segment per block and run of
+	 * contiguous plain lines; all other lines are drawn line by line. The block segments
+	 * follow the line segments, out of top-down order, and are merged with them on use.
+	 * Applies only where the model is current and the range shows contiguous document
+	 * lines.
+	 *
+	 * @return {@code true} if drawn
+	 */
+	private boolean drawBlocks(int begLine, int endLine, int tabWidth, ColumnMetrics cm, int margin, int hx) {
+		if (model == null || !model.isCurrent(viewer.getDocument(), tabWidth)) return false;
+		int docBeg = Utils.modelLine(viewer, begLine);
+		int docEnd = Utils.modelLine(viewer, endLine);
+		if (docBeg < 0 || docEnd - docBeg != endLine - begLine || docEnd >= model.lineCount()) return false;
+
+		int len = endLine - begLine + 1;
+		if (runs.length < len) {
+			tops = new int[len];
+			bots = new int[len];
+			runs = new int[len];
+		}
+
+		StyledTextContent content = widget.getContent();
+		int spacing = widget.getLineSpacing();
+		int x0 = margin + widget.getLineIndent(begLine);
+		for (int idx = 0; idx < len; idx++) {
+			int lnNum = begLine + idx;
+			int offset = widget.getOffsetAtLine(lnNum);
+			int y0 = widget.getLinePixel(lnNum);
+			int height = widget.getLineHeight(offset);
+			tops[idx] = y0;
+			bots[idx] = y0 + height + spacing;
+			runs[idx] = -1;
+
+			if (folds.isFolded(content.getLineAtOffset(offset))) continue;
+			int lx0 = margin + widget.getLineIndent(lnNum);
+			if (lx0 == x0 && model.isPlain(docBeg + idx)) {
+				runs[idx] = idx;
+				continue;
+			}
+
+			fillState(lnNum, tabWidth, cm, lx0);
+			for (int stop = 0, cnt = state.stopCnt(); stop < cnt; stop++) {
+				if (LineRules.skipStop(state, stop, drawLeadEdge, drawBlankLn, drawComment)) continue;
+
+				boolean asc = state.col(stop) >= state.lastStopCol();
+				draw(lx0, y0, state.loc(stop) + hx, spacing, height, asc);
+			}
+		}
+
+		// join vertically contiguous plain lines
+		for (int idx = len - 2; idx >= 0; idx--) {
+			if (runs[idx] > -1 && runs[idx + 1] > -1 && tops[idx + 1] <= bots[idx]) runs[idx] = runs[idx + 1];
+		}
+
+		model.blocks().query(docBeg, docEnd, (beg, end, depth) -> {
+			if (depth == 0 && !drawLeadEdge) return;
+
+			int loc = depth == 0 ? Pos.P0.loc : x0 + cm.loc(depth * tabWidth);
+			for (int idx = Math.max(beg - docBeg, 0), last = Math.min(end - docBeg, len - 1); idx <= last;) {
+				if (runs[idx] < 0) { // drawn line by line
+					idx++;
+					continue;
+				}
+				int run = Math.min(runs[idx], last);
+				boolean asc = depth >= model.beg(docBeg + idx) / tabWidth;
+				int top = asc ? tops[idx] - spacing : tops[idx];
+				strokes.add(x0 + loc + hx + lineShift, top, bots[run]);
+				idx = run + 1;
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Fills the line state for the given widget line. Uses the document indent model where
+	 * current; otherwise, computes the line directly from the widget content.
+	 */
+	private void fillState(int lnNum, int tabWidth, ColumnMetrics cm, int x0) {
+		if (model != null && model.isCurrent(viewer.getDocument(), tabWidth)) {
+			int docNum = Utils.modelLine(viewer, lnNum);
+			if (docNum > -1 && docNum < model.lineCount()) {
+				if (cm != null && refsVisible(docNum)) {
+					state.fill(model, cm, x0, docNum);
+					return;
+				}
+
+				Line line = degraded ? null : Line.of(viewer, widget, model, cm, x0, lnNum, docNum);
+				if (line != null) {
+					state.fill(line);
+					return;
+				}
+			}
+		}
+		state.fill(new Line(viewer, widget, prefixMap, lnNum, tabWidth, degraded ? scanDist : -1));
+	}
+
+	// the reference lines of a blank line, as taken from the model, are not hidden in a
+	// folded region; otherwise, the line is computed from the widget content
+	private boolean refsVisible(int docNum) {
+		if (!model.isBlank(docNum)) return true;
+
+		int real = model.prev(docNum);
+		if (model.isDegraded(docNum)) {
+			return docNum - real > model.scanDistance() || Utils.widgetLine(viewer, real) > -1;
+		}
+		return Utils.widgetLine(viewer, real) > -1 && Utils.widgetLine(viewer, model.next(docNum)) > -1;
+	}
+
+	// collect a guide segment; merged and drawn on flush
+	private void draw(int x0, int y0, int loc, int sp, int ht, boolean asc) {
+		int x = x0 + loc + lineShift;
+		int top = asc ? y0 - sp : y0;
+		int bot = y0 + ht + sp;
+		strokes.add(x, top, bot);
+		if (layer != null) layer.add(x, top - y0, bot - y0);
+	}
+
+	private void invalidateCaches() {
+		folds.invalidate();
+		if (layer != null) layer.invalidate();
+	}
+
+	/**
+	 * Applies the given preference snapshot. Where it differs from the applied snapshot,
+	 * redraws all visible content; otherwise, does nothing.
+	 *
+	 * @param config the preference snapshot
+	 * @return {@code true} if applied
+	 */
+	public boolean configure(GuideConfig config) {
+		if (config.equals(this.config)) return false;
+		boolean limits = config.limitsDiffer(this.config);
+		this.config = config;
+
+		lineAlpha = config.lineAlpha;
+		lineStyle = config.lineStyle;
+		lineWidth = config.lineWidth;
+		lineShift = config.lineShift;
+		lineColor = ColorPool.get(widget.getDisplay(), config.lineColor);
+
+		drawLeadEdge = config.drawLeadEdge;
+		drawBlankLn = config.drawBlankLn;
+		drawComment = config.drawComment;
+
+		largeLines = config.largeLines;
+		largeLineLen = config.largeLineLen;
+		scanDist = config.scanDist;
+		if (limits && model != null) connectModel(model.document());
+
+		if (config.layerCache) {
+			if (layer == null) layer = new GuideLayer();
+			layer.invalidate();
+		} else {
+			layer = null;
+		}
+
+		if (active) redrawAll();
+		return true;
+	}
+
+	public boolean isActive() {
+		return active;
+	}
+
+	public void activate(boolean redraw) {
+		if (!active) {
+			active = true;
+			widget.addPaintListener(this);
+			folds.connect();
+			connectModel(viewer.getDocument());
+			if (redraw) redrawAll();
+		}
+	}
+
+	@Override
+	public void deactivate(boolean redraw) {
+		if (active) {
+			active = false;
+			widget.removePaintListener(this);
+			folds.disconnect();
+			disconnectModel();
+			if (redraw) widget.redraw();
+		}
+	}
+
+	@Override
+	public void dispose() {
+		scheduler.dispose();
+		folds.disconnect();
+		disconnectModel();
+		viewer = null;
+		widget = null;
+		lineColor = null;
+	}
+
+	private void connectModel(IDocument doc) {
+		disconnectModel();
+		invalidateCaches();
+		if (doc != null) {
+			model = IndentModels.acquire(doc, prefixMap, widget.getTabs(), largeLines, largeLineLen, scanDist);
+			damage = model.track();
+			model.onReady(onModelReady);
+		}
+		updateDegraded();
+	}
+
+	private void disconnectModel() {
+		if (model != null) {
+			model.removeOnReady(onModelReady);
+			model.untrack(damage);
+			IndentModels.release(model);
+			model = null;
+			damage = null;
+		}
+	}
+
+	@Override
+	public void setPositionManager(IPaintPositionManager manager) {}
+}
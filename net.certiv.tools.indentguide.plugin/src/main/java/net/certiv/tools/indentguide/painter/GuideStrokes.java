@@ -0,0 +1,185 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Arrays;
+
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Path;
+
+/**
+ * Reusable, per-painter collector of the vertical guide segments for one damage region.
+ * Segments are normally added top-down; a segment that continues an open run at the same
+ * X coordinate extends that run rather than starting a new stroke. A segment added above
+ * the open run at its X coordinate starts a new run, and the runs are then sorted and
+ * merged before use. The merged strokes are emitted in one batch.
+ */
+class GuideStrokes {
+
+	private static final int INIT = 64;
+
+	/** X coordinate by run */
+	private int[] xs = new int[INIT];
+	/** Top Y coordinate by run */
+	private int[] tops = new int[INIT];
+	/** Bottom Y coordinate by run */
+	private int[] bots = new int[INIT];
+	/** Number of runs */
+	private int cnt;
+
+	/** Run index by open slot; one slot per distinct X coordinate */
+	private int[] open = new int[INIT];
+	/** Number of open slots */
+	private int openCnt;
+
+	/** Number of segments added since the last reset */
+	private int added;
+	/** Some segment was added above the open run at its X coordinate */
+	private boolean unsorted;
+
+	/** Clears all collected segments. */
+	void reset() {
+		cnt = 0;
+		openCnt = 0;
+		added = 0;
+		unsorted = false;
+	}
+
+	/**
+	 * Adds a vertical segment. Segments added in top-down order for any given X coordinate
+	 * are merged as added; others are merged on use.
+	 *
+	 * @param x   X coordinate
+	 * @param top top Y coordinate
+	 * @param bot bottom Y coordinate
+	 */
+	void add(int x, int top, int bot) {
+		added++;
+		for (int slot = 0; slot < openCnt; slot++) {
+			int run = open[slot];
+			if (xs[run] == x) {
+				if (top < tops[run]) { // out of order
+					unsorted = true;
+					append(x, top, bot);
+				} else if (top <= bots[run]) {
+					bots[run] = Math.max(bots[run], bot);
+				} else {
+					open[slot] = append(x, top, bot);
+				}
+				return;
+			}
+		}
+
+		if (openCnt == open.length) open = Arrays.copyOf(open, openCnt * 2);
+		open[openCnt++] = append(x, top, bot);
+	}
+
+	private int append(int x, int top, int bot) {
+		if (cnt == xs.length) {
+			xs = Arrays.copyOf(xs, cnt * 2);
+			tops = Arrays.copyOf(tops, cnt * 2);
+			bots = Arrays.copyOf(bots, cnt * 2);
+		}
+		xs[cnt] = x;
+		tops[cnt] = top;
+		bots[cnt] = bot;
+		return cnt++;
+	}
+
+	/** Returns the number of merged strokes. */
+	int strokeCnt() {
+		if (unsorted) merge();
+		return cnt;
+	}
+
+	/** Returns the number of segments added since the last reset. */
+	int segmentCnt() {
+		return added;
+	}
+
+	/**
+	 * Draws the merged strokes, then clears the collector. Uses a single path where
+	 * advanced graphics are available; otherwise, one line per stroke.
+	 *
+	 * @param gc       the GC
+	 * @param advanced {@code true} if advanced graphics are enabled
+	 */
+	void flush(GC gc, boolean advanced) {
+		if (cnt == 0) return;
+		if (unsorted) merge();
+
+		if (advanced && cnt > 1) {
+			Path path = new Path(gc.getDevice());
+			try {
+				for (int run = 0; run < cnt; run++) {
+					path.moveTo(xs[run], tops[run]);
+					path.lineTo(xs[run], bots[run]);
+				}
+				gc.drawPath(path);
+			} finally {
+				path.dispose();
+			}
+
+		} else {
+			for (int run = 0; run < cnt; run++) {
+				gc.drawLine(xs[run], tops[run], xs[run], bots[run]);
+			}
+		}
+		reset();
+	}
+
+	// sort the runs by X coordinate, then top; merge the overlapping runs of each X
+	private void merge() {
+		// insertion sort: runs are mostly ordered
+		for (int idx = 1; idx < cnt; idx++) {
+			int x = xs[idx];
+			int top = tops[idx];
+			int bot = bots[idx];
+			int pos = idx - 1;
+			for (; pos >= 0 && (xs[pos] > x || xs[pos] == x && tops[pos] > top); pos--) {
+				xs[pos + 1] = xs[pos];
+				tops[pos + 1] = tops[pos];
+				bots[pos + 1] = bots[pos];
+			}
+			xs[pos + 1] = x;
+			tops[pos + 1] = top;
+			bots[pos + 1] = bot;
+		}
+
+		int out = 0;
+		openCnt = 0;
+		for (int idx = 0; idx < cnt; idx++) {
+			if (out > 0 && xs[out - 1] == xs[idx] && tops[idx] <= bots[out - 1]) {
+				bots[out - 1] = Math.max(bots[out - 1], bots[idx]);
+				continue;
+			}
+			xs[out] = xs[idx];
+			tops[out] = tops[idx];
+			bots[out] = bots[idx];
+			if (out == 0 || xs[out - 1] != xs[out]) {
+				if (openCnt == open.length) open = Arrays.copyOf(open, openCnt * 2);
+				openCnt++;
+			}
+			open[openCnt - 1] = out; // last run of each X is open
+			out++;
+		}
+		cnt = out;
+		unsorted = false;
+	}
+
+	@Override
+	public String toString() {
+		merge();
+		StringBuilder sb = new StringBuilder();
+		for (int run = 0; run < cnt; run++) {
+			sb.append(String.format("%d:%d-%d ", xs[run], tops[run], bots[run])); //$NON-NLS-1$
+		}
+		return sb.toString().trim();
+	}
+}
@@ -0,0 +1,255 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Arrays;
+
+/**
+ * Indent blocks of a document. A block at depth {@code d} is a maximal run of
+ * consecutive plain lines each painting the guide at stop {@code d}, that is, each
+ * having a level greater than {@code d}. Lines other than plain lines have level zero,
+ * and so bound every block.
+ * <p>
+ * The blocks of each depth are disjoint and held sorted, so that the blocks crossing a
+ * line range are found in {@code O(D log n + k)}, for {@code D} depths and {@code k}
+ * blocks found. After an edit, only the blocks touching the changed lines are
+ * recomputed; the following blocks are shifted by the change in line count.
+ */
+class IndentBlocks {
+
+	private static final int INIT = 16;
+
+	/** Receives the blocks found by a query. */
+	interface Visitor {
+
+		/**
+		 * Visits one block.
+		 *
+		 * @param beg   first line of the block
+		 * @param end   last line of the block, inclusive
+		 * @param depth guide stop index (0..n)
+		 */
+		void block(int beg, int end, int depth);
+	}
+
+	/** Line levels of the modeled document. */
+	interface Levels {
+
+		/** Returns the number of guides painted on the given line from its block. */
+		int level(int line);
+	}
+
+	private final Levels levels;
+
+	/** Block first lines by depth */
+	private int[][] begs = new int[0][];
+	/** Block last lines by depth */
+	private int[][] ends = new int[0][];
+	/** Block count by depth */
+	private int[] sizes = new int[0];
+
+	// scratch runs recomputed by depth
+	private int[] runBegs = new int[INIT];
+	private int[] runEnds = new int[INIT];
+
+	IndentBlocks(Levels levels) {
+		this.levels = levels;
+	}
+
+	/** Returns the number of depths holding blocks, or having held blocks. */
+	int depths() {
+		return sizes.length;
+	}
+
+	/** Returns the number of blocks at the given depth. */
+	int size(int depth) {
+		return depth < sizes.length ? sizes[depth] : 0;
+	}
+
+	/**
+	 * Rebuilds all blocks.
+	 *
+	 * @param count number of lines
+	 */
+	void rebuild(int count) {
+		Arrays.fill(sizes, 0);
+		for (int line = 0; line < count; line++) {
+			int level = levels.level(line);
+			ensureDepths(level);
+			for (int depth = 0; depth < level; depth++) {
+				if (line == 0 || levels.level(line - 1) <= depth) {
+					// block begins here; find its end
+					int end = line;
+					while (end + 1 < count && levels.level(end + 1) > depth) {
+						end++;
+					}
+					append(depth, line, end);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Takes over the blocks of the given instance, built over the same line levels.
+	 *
+	 * @param other blocks no longer in use otherwise
+	 */
+	void adopt(IndentBlocks other) {
+		begs = other.begs;
+		ends = other.ends;
+		sizes = other.sizes;
+	}
+
+	/**
+	 * Updates the blocks for a change replacing the lines {@code beg..oldEnd} with the
+	 * lines {@code beg..newEnd}, where the lines {@code beg..last} of the new line
+	 * numbering may have changed level.
+	 *
+	 * @param beg    first changed line
+	 * @param oldEnd last replaced line, prior to the change
+	 * @param newEnd last replacing line
+	 * @param last   last line that may have changed level
+	 * @param count  number of lines following the change
+	 */
+	void replace(int beg, int oldEnd, int newEnd, int last, int count) {
+		int delta = newEnd - oldEnd;
+		int hi = Math.max(last, newEnd);
+
+		// the changed lines may have deepened the document
+		for (int line = beg; line <= hi; line++) {
+			ensureDepths(levels.level(line));
+		}
+
+		for (int depth = 0; depth < sizes.length; depth++) {
+			int[] bs = begs[depth];
+			int[] es = ends[depth];
+			int size = sizes[depth];
+
+			// blocks touching, or adjacent to, the changed lines (old numbering)
+			int from = first(es, size, beg - 1);
+			int to = from;
+			while (to < size && bs[to] <= hi - delta + 1) {
+				to++;
+			}
+
+			int lo = beg;
+			int top = hi;
+			if (from < to) {
+				lo = Math.min(lo, bs[from]);
+				top = Math.max(top, es[to - 1] + delta);
+			}
+			top = Math.min(top, count - 1);
+
+			// shift the following blocks
+			for (int idx = to; idx < size; idx++) {
+				bs[idx] += delta;
+				es[idx] += delta;
+			}
+
+			int runs = runs(depth, lo, top);
+			splice(depth, from, to, runs);
+		}
+	}
+
+	/**
+	 * Visits the blocks crossing the given line range, by depth, then by line.
+	 *
+	 * @param beg     first line
+	 * @param end     last line, inclusive
+	 * @param visitor receives the blocks
+	 */
+	void query(int beg, int end, Visitor visitor) {
+		for (int depth = 0; depth < sizes.length; depth++) {
+			int[] bs = begs[depth];
+			int[] es = ends[depth];
+			for (int idx = first(es, sizes[depth], beg); idx < sizes[depth] && bs[idx] <= end; idx++) {
+				visitor.block(bs[idx], es[idx], depth);
+			}
+		}
+	}
+
+	// index of the first block ending at or after the given line
+	private int first(int[] es, int size, int line) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (es[mid] < line) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	// compute the runs of the given depth within the given lines into the scratch arrays
+	private int runs(int depth, int lo, int hi) {
+		int cnt = 0;
+		for (int line = lo; line <= hi; line++) {
+			if (levels.level(line) <= depth) continue;
+
+			int end = line;
+			while (end + 1 <= hi && levels.level(end + 1) > depth) {
+				end++;
+			}
+			if (cnt == runBegs.length) {
+				runBegs = Arrays.copyOf(runBegs, cnt * 2);
+				runEnds = Arrays.copyOf(runEnds, cnt * 2);
+			}
+			runBegs[cnt] = line;
+			runEnds[cnt] = end;
+			cnt++;
+			line = end;
+		}
+		return cnt;
+	}
+
+	// replace the blocks from..to (exclusive) of the given depth with the scratch runs
+	private void splice(int depth, int from, int to, int runs) {
+		int size = sizes[depth];
+		int next = size - (to - from) + runs;
+		if (next > begs[depth].length) {
+			int cap = next + INIT;
+			begs[depth] = Arrays.copyOf(begs[depth], cap);
+			ends[depth] = Arrays.copyOf(ends[depth], cap);
+		}
+		int[] bs = begs[depth];
+		int[] es = ends[depth];
+		System.arraycopy(bs, to, bs, from + runs, size - to);
+		System.arraycopy(es, to, es, from + runs, size - to);
+		System.arraycopy(runBegs, 0, bs, from, runs);
+		System.arraycopy(runEnds, 0, es, from, runs);
+		sizes[depth] = next;
+	}
+
+	private void append(int depth, int beg, int end) {
+		int size = sizes[depth];
+		if (size == begs[depth].length) {
+			begs[depth] = Arrays.copyOf(begs[depth], size * 2);
+			ends[depth] = Arrays.copyOf(ends[depth], size * 2);
+		}
+		begs[depth][size] = beg;
+		ends[depth][size] = end;
+		sizes[depth]++;
+	}
+
+	private void ensureDepths(int depths) {
+		int len = sizes.length;
+		if (depths <= len) return;
+
+		begs = Arrays.copyOf(begs, depths);
+		ends = Arrays.copyOf(ends, depths);
+		sizes = Arrays.copyOf(sizes, depths);
+		for (int depth = len; depth < depths; depth++) {
+			begs[depth] = new int[INIT];
+			ends[depth] = new int[INIT];
+		}
+	}
+}
@@ -0,0 +1,861 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.swt.widgets.Display;
+
+import net.certiv.tools.indentguide.util.Utils;
+
+/**
+ * Per-document indent model. Records, for each document line, the text begin column and
+ * the blank, block comment, and column zero comment state of the line.
+ * <p>
+ * The model is populated once on connect. Thereafter, only the lines touched by a
+ * document change are rescanned, so that painting reduces to a lookup.
+ * <p>
+ * Large documents are populated in the background: a snapshot of the document text and
+ * partitioning is analyzed by a job, and the finished result is adopted on the UI thread
+ * only if the document modification stamp is unchanged; otherwise, the analysis
+ * restarts. Until then, the
+ * model is not current, and painting computes lines on demand.
+ * <p>
+ * The model also maintains, for each line, the distance to the nearest real
+ * (non-blank/non-col0 comment) line above and below. Distances are relative, so lines
+ * shifted by an edit remain valid; only the distances crossing the edited lines are
+ * recomputed, stopping where they converge with the prior values.
+ * <p>
+ * Block comment state is tracked across lines by a C-style comment lexer. The state at
+ * the start and end of each line is stored, so that re-lexing after an edit continues
+ * past the edited lines only until the state converges with the prior state. The lexer
+ * runs only on lines starting in a partition having C-style line comment prefixes, and
+ * not in a string or character literal partition; other lines carry the state through.
+ * Lines whose partitioning changes, including lines beyond an edit, are rescanned.
+ * <p>
+ * Each change records the range of lines whose guides may have changed: the edited
+ * lines, together with the neighboring blank lines whose delta depends on them. Where
+ * an edit leaves the line count and the leading whitespace and line state unchanged,
+ * nothing is recorded. The range is recorded separately for each painter sharing the
+ * model.
+ * <p>
+ * The model also maintains the indent blocks of the document, so that the guides of
+ * plain lines crossing a line range are found without examining each line.
+ * <p>
+ * Past the configured limits, the model is degraded: documents with too many lines are
+ * scanned without comment detection. Individual lines that are too long are likewise
+ * scanned without comment detection, and only those lines are degraded.
+ */
+class IndentModel implements IDocumentListener {
+
+	/** Line flag: blank line */
+	private static final byte BLANK = 1;
+	/** Line flag: in block comment */
+	private static final byte BLOCK = 1 << 1;
+	/** Line flag: column 0 line comment */
+	private static final byte CMT0 = 1 << 2;
+	/** Line flag: leading whitespace contains spaces */
+	private static final byte SPCS = 1 << 3;
+	/** Line flag: leading whitespace contains tabs */
+	private static final byte TABS = 1 << 4;
+	/** Line flag: line starts within a block comment */
+	private static final byte IN = 1 << 5;
+	/** Line flag: line ends within a block comment */
+	private static final byte OPEN = 1 << 6;
+	/** Line flag: line too long for comment detection */
+	private static final byte LONG = (byte) (1 << 7);
+	/** Line flags affecting the painted guides */
+	private static final byte PAINTED = BLANK | BLOCK | CMT0;
+
+	private static final int GROW = 256;
+
+	/** Line comment prefix of the languages having C-style block comments */
+	private static final String SLASHES = "//"; //$NON-NLS-1$
+
+	/** Line count at or above which the initial analysis runs in the background */
+	static final int ASYNC_LINES = 50000;
+
+	private final IDocument doc;
+	private final Map<String, List<String>> prefixMap;
+	private final int tabWidth;
+	private final PartitionTypes types;
+	/** Indent blocks of the plain lines */
+	private final IndentBlocks blocks = new IndentBlocks(this::level);
+	/** Compiled column 0 comment prefixes by partition type */
+	private final Map<String, PrefixMatcher> matchers = new HashMap<>();
+	/** Block comment lexing enablement by partition type */
+	private final Map<String, Boolean> lexers = new HashMap<>();
+
+	/** Populated and tracking changes */
+	private boolean ready;
+	/** Pending background analysis */
+	private Analysis analysis;
+	/** Actions run on completion of a background analysis */
+	private final List<Runnable> onReady = new ArrayList<>(1);
+
+	/** Line count at or above which comment detection is disabled */
+	private int maxLines = Integer.MAX_VALUE;
+	/** Line length above which comment detection is disabled for the line */
+	private int maxLineLen = Integer.MAX_VALUE;
+	/** Maximum distance to a reference line where degraded */
+	private int scanDist = Integer.MAX_VALUE;
+	/** Comment detection disabled for all lines */
+	private boolean plain;
+	/** Number of lines too long for comment detection */
+	private int longs;
+
+	/** Text begin column by line */
+	private int[] begs = new int[0];
+	/** Line flags by line */
+	private byte[] flags = new byte[0];
+	/** Distance to the prior real line by line; {@code 0} if none */
+	private int[] ups = new int[0];
+	/** Distance to the next real line by line; {@code 0} if none */
+	private int[] dns = new int[0];
+	/** Number of modeled lines */
+	private int count;
+
+	/** First line of the pending change; {@code -1} if unknown */
+	private int chgBeg = -1;
+	/** Last line of the pending change, prior to the change */
+	private int chgEnd = -1;
+	/** Within a document change; partitioning changes are applied following it */
+	private boolean changing;
+	/** First line repartitioned within the pending change; {@code -1} if none */
+	private int partBeg = -1;
+	/** Last line repartitioned within the pending change */
+	private int partEnd = -1;
+
+	/** Accumulated damage, for the model owner */
+	private final LineDamage damage = new LineDamage();
+	/** Accumulated damage by consumer, including the owner */
+	private final List<LineDamage> damages = new ArrayList<>(List.of(damage));
+
+	/** Prior text begin columns of the lines being replaced */
+	private int[] oldBegs = new int[0];
+	/** Prior line flags of the lines being replaced */
+	private byte[] oldFlags = new byte[0];
+
+	/**
+	 * Creates a new indent model for the given document.
+	 *
+	 * @param doc       the modeled document
+	 * @param prefixMap line comment prefixes by partition type
+	 * @param tabWidth  tab width
+	 */
+	IndentModel(IDocument doc, Map<String, List<String>> prefixMap, int tabWidth) {
+		this.doc = doc;
+		this.prefixMap = prefixMap;
+		this.tabWidth = tabWidth;
+		types = new PartitionTypes(doc, this::repartitioned);
+	}
+
+	/**
+	 * Populates the model and starts tracking document changes. Large documents are
+	 * populated in the background where called on the UI thread.
+	 */
+	void connect() {
+		types.connect();
+		doc.addDocumentListener(this);
+		if (doc.getNumberOfLines() >= ASYNC_LINES && doc instanceof IDocumentExtension4
+				&& Display.getCurrent() != null) {
+			analyze();
+		} else {
+			reload();
+		}
+	}
+
+	/** Stops tracking document changes. */
+	void disconnect() {
+		doc.removeDocumentListener(this);
+		types.disconnect();
+		if (analysis != null) {
+			analysis.cancel();
+			analysis = null;
+		}
+	}
+
+	/**
+	 * Adds an action to run, on the UI thread, once a background analysis has been
+	 * adopted.
+	 */
+	void onReady(Runnable action) {
+		onReady.add(action);
+	}
+
+	/** Removes an action added by {@link #onReady}. */
+	void removeOnReady(Runnable action) {
+		onReady.remove(action);
+	}
+
+	/**
+	 * Returns a new damage accumulator, maintained with that of the model owner. Allows
+	 * each painter sharing the model to consume its damage independently.
+	 *
+	 * @return the damage accumulator; to be released by {@link #untrack}
+	 */
+	LineDamage track() {
+		LineDamage dmg = new LineDamage();
+		damages.add(dmg);
+		return dmg;
+	}
+
+	/** Releases a damage accumulator returned by {@link #track}. */
+	void untrack(LineDamage dmg) {
+		if (dmg != damage) damages.remove(dmg);
+	}
+
+	/**
+	 * Sets the limits past which the model is degraded. Takes effect on the next full
+	 * (re)load.
+	 *
+	 * @param maxLines   line count at or above which comment detection is disabled
+	 * @param maxLineLen line length above which comment detection is disabled for a line
+	 * @param scanDist   maximum distance to a reference line where degraded
+	 */
+	void limits(int maxLines, int maxLineLen, int scanDist) {
+		this.maxLines = maxLines;
+		this.maxLineLen = maxLineLen;
+		this.scanDist = scanDist;
+	}
+
+	/** Returns {@code true} if the document exceeds the model line count limit. */
+	boolean isDegraded() {
+		return plain;
+	}
+
+	/**
+	 * Returns {@code true} if the given line is scanned without comment detection: where
+	 * the document exceeds the line count limit, or the line the line length limit.
+	 */
+	boolean isDegraded(int line) {
+		return plain || (flags[line] & LONG) != 0;
+	}
+
+	/** Returns the number of lines exceeding the line length limit. */
+	int overlong() {
+		return longs;
+	}
+
+	/** Returns the maximum distance to a reference line where degraded. */
+	int scanDistance() {
+		return scanDist;
+	}
+
+	/** Returns {@code true} if the model is populated. */
+	boolean isReady() {
+		return ready;
+	}
+
+	IDocument document() {
+		return doc;
+	}
+
+	Map<String, List<String>> prefixMap() {
+		return prefixMap;
+	}
+
+	int tabWidth() {
+		return tabWidth;
+	}
+
+	PartitionTypes types() {
+		return types;
+	}
+
+	/** Returns the indent blocks; current where the model is. */
+	IndentBlocks blocks() {
+		return blocks;
+	}
+
+	/**
+	 * Returns {@code true} if the model is in sync with the given document and tab width.
+	 *
+	 * @param doc      the document
+	 * @param tabWidth the current tab width
+	 * @return {@code true} if the model is usable as is
+	 */
+	boolean isCurrent(IDocument doc, int tabWidth) {
+		return ready && this.doc == doc && this.tabWidth == tabWidth && count == doc.getNumberOfLines();
+	}
+
+	/**
+	 * Returns {@code true} if the model is, or is being populated, for the given document
+	 * and tab width.
+	 *
+	 * @param doc      the document
+	 * @param tabWidth the current tab width
+	 * @return {@code true} if the model need not be replaced
+	 */
+	boolean isFor(IDocument doc, int tabWidth) {
+		return this.doc == doc && this.tabWidth == tabWidth && (!ready || count == doc.getNumberOfLines());
+	}
+
+	/** Returns the number of modeled lines. */
+	int lineCount() {
+		return count;
+	}
+
+	/** Returns the text begin column of the given line. */
+	int beg(int line) {
+		return begs[line];
+	}
+
+	/** Returns the number of tab stops, including the column zero stop, of the given line. */
+	int stopCnt(int line) {
+		return 1 + begs[line] / tabWidth;
+	}
+
+	/**
+	 * Returns the number of guides painted on the given line from its indent blocks: the
+	 * stops, including the column zero stop, before the text begin column of a plain
+	 * (non-blank/non-block/non-col0 comment) line; otherwise {@code 0}.
+	 */
+	int level(int line) {
+		if ((flags[line] & PAINTED) != 0) return 0;
+		return (begs[line] + tabWidth - 1) / tabWidth;
+	}
+
+	/** Returns {@code true} if the given line is neither blank, block, nor col0 comment. */
+	boolean isPlain(int line) {
+		return (flags[line] & PAINTED) == 0;
+	}
+
+	boolean isBlank(int line) {
+		return (flags[line] & BLANK) != 0;
+	}
+
+	boolean isBlock(int line) {
+		return (flags[line] & BLOCK) != 0;
+	}
+
+	boolean isCol0Comment(int line) {
+		return (flags[line] & CMT0) != 0;
+	}
+
+	/** Returns {@code true} if the given line is neither blank nor a column 0 comment. */
+	boolean isReal(int line) {
+		return (flags[line] & (BLANK | CMT0)) == 0;
+	}
+
+	/**
+	 * Find the prior real (non-blank/non-col0 comment) line num starting before the given
+	 * line number. If none exists, returns the given line number.
+	 *
+	 * @param line reference line number
+	 */
+	int prev(int line) {
+		return line - ups[line];
+	}
+
+	/**
+	 * Find the next real (non-blank/non-col0 comment) line num starting after the given
+	 * line number. If none exists, returns the given line number.
+	 *
+	 * @param line reference line number
+	 */
+	int next(int line) {
+		return line + dns[line];
+	}
+
+	/**
+	 * Returns the char position (unexpanded) of the given stop in the given line.
+	 *
+	 * @param line line number
+	 * @param stop stop index (1..n)
+	 * @return char position in line
+	 */
+	int stopPos(int line, int stop) {
+		int col = stop * tabWidth;
+		switch (flags[line] & (SPCS | TABS)) {
+			case SPCS:
+				return col;
+			case TABS:
+				return stop;
+			default:
+				return scanStopPos(line, col);
+		}
+	}
+
+	/** Returns {@code true} if document changes have damaged any painted lines. */
+	boolean hasDamage() {
+		return damage.has();
+	}
+
+	/** Returns the first damaged line. */
+	int damageBeg() {
+		return damage.beg();
+	}
+
+	/** Returns the last damaged line, inclusive. */
+	int damageEnd() {
+		return damage.end();
+	}
+
+	/** Clears the accumulated damage. */
+	void clearDamage() {
+		damage.clear();
+	}
+
+	// find the char position of the given column in mixed leading whitespace
+	private int scanStopPos(int line, int target) {
+		try {
+			int offset = doc.getLineOffset(line);
+			for (int pos = 0, col = 0; col < target; pos++) {
+				char ch = doc.getChar(offset + pos);
+				col += ch == Utils.TAB ? tabWidth - (col % tabWidth) : 1;
+				if (col >= target) return pos + 1;
+			}
+		} catch (BadLocationException e) {}
+		return target;
+	}
+
+	// --------------------------------
+
+	@Override
+	public void documentAboutToBeChanged(DocumentEvent evt) {
+		if (!ready) return; // pending analysis restarts on adoption
+		changing = true;
+		try {
+			chgBeg = doc.getLineOfOffset(evt.getOffset());
+			chgEnd = doc.getLineOfOffset(evt.getOffset() + evt.getLength());
+		} catch (BadLocationException e) {
+			chgBeg = -1;
+		}
+	}
+
+	@Override
+	public void documentChanged(DocumentEvent evt) {
+		int pBeg = partBeg;
+		int pEnd = partEnd;
+		changing = false;
+		partBeg = partEnd = -1;
+
+		if (!ready) return;
+		if (chgBeg < 0 || chgEnd >= count) {
+			reload();
+			return;
+		}
+
+		try {
+			String text = evt.getText();
+			int len = text != null ? text.length() : 0;
+			int end = doc.getLineOfOffset(evt.getOffset() + len);
+			replace(chgBeg, chgEnd, end);
+			if (pBeg > -1) rescan(pBeg, pEnd);
+
+		} catch (BadLocationException e) {
+			reload();
+		}
+		chgBeg = -1;
+	}
+
+	// the partitioning of the given lines changed; applied once the model reflects the
+	// changed document
+	private void repartitioned(int beg, int end) {
+		if (!ready) return;
+		if (changing) {
+			partBeg = partBeg < 0 ? beg : Math.min(partBeg, beg);
+			partEnd = Math.max(partEnd, end);
+			return;
+		}
+		rescan(beg, end);
+	}
+
+	/**
+	 * Rescans the given lines, inclusive, for a change in their partitioning, together
+	 * with the following lines whose block comment state changes as a result.
+	 */
+	private void rescan(int beg, int end) {
+		end = Math.min(end, count - 1);
+		if (beg > end) return;
+
+		scan(beg, end);
+		int last = relex(end);
+		link(beg, last);
+		blocks.replace(beg, last, last, last, count);
+
+		// include the blank lines referencing the rescanned lines
+		int lo = ups[beg] != 0 ? prev(beg) + 1 : 0;
+		int hi = dns[last] != 0 ? next(last) - 1 : count - 1;
+		damage(Math.min(lo, beg), Math.max(hi, last));
+	}
+
+	/** Rescans all document lines. */
+	void reload() {
+		count = 0;
+		int lines = doc.getNumberOfLines();
+		plain = lines >= maxLines;
+		longs = 0;
+		ensureCapacity(lines);
+		Arrays.fill(flags, 0, lines, (byte) 0);
+		count = lines;
+		scan(0, lines - 1);
+		link(0, lines - 1);
+		blocks.rebuild(count);
+		damage(0, lines - 1);
+		ready = true;
+	}
+
+	/** Starts a background analysis of a snapshot of the document. */
+	private void analyze() {
+		ready = false;
+		count = 0;
+		plain = doc.getNumberOfLines() >= maxLines;
+		if (analysis != null) analysis.cancel();
+
+		ITypedRegion[] regions;
+		try {
+			regions = doc.computePartitioning(0, doc.getLength());
+		} catch (BadLocationException e) {
+			regions = new ITypedRegion[0];
+		}
+		analysis = new Analysis(doc.get(), regions, ((IDocumentExtension4) doc).getModificationStamp(),
+				Display.getCurrent());
+		analysis.schedule();
+	}
+
+	/**
+	 * Adopts the finished result of the given analysis, if still applicable. Runs on the
+	 * UI thread.
+	 */
+	private void adopt(Analysis job, IndentModel result) {
+		if (analysis != job) return; // superseded or disconnected
+		analysis = null;
+		if (((IDocumentExtension4) doc).getModificationStamp() != job.stamp) {
+			analyze();
+			return;
+		}
+
+		begs = result.begs;
+		flags = result.flags;
+		ups = result.ups;
+		dns = result.dns;
+		count = result.count;
+		plain = result.plain;
+		longs = result.longs;
+
+		blocks.adopt(result.blocks);
+
+		ready = true;
+		damage(0, count - 1);
+		for (Runnable action : List.copyOf(onReady)) {
+			action.run();
+		}
+	}
+
+	/**
+	 * Replaces the model lines {@code beg..oldEnd} with rescanned document lines
+	 * {@code beg..newEnd}.
+	 */
+	private void replace(int beg, int oldEnd, int newEnd) {
+		int delta = newEnd - oldEnd;
+		for (int line = beg; line <= oldEnd; line++) {
+			if ((flags[line] & LONG) != 0) longs--;
+		}
+		if (delta == 0) {
+			int len = oldEnd - beg + 1;
+			if (oldBegs.length < len) {
+				oldBegs = new int[len + GROW];
+				oldFlags = new byte[len + GROW];
+			}
+			System.arraycopy(begs, beg, oldBegs, 0, len);
+			System.arraycopy(flags, beg, oldFlags, 0, len);
+
+		} else {
+			// shift any pending damage below the change
+			for (LineDamage dmg : damages) {
+				dmg.shift(oldEnd, delta);
+			}
+			ensureCapacity(count + delta);
+			int tail = count - oldEnd - 1;
+			System.arraycopy(begs, oldEnd + 1, begs, newEnd + 1, tail);
+			System.arraycopy(flags, oldEnd + 1, flags, newEnd + 1, tail);
+			System.arraycopy(ups, oldEnd + 1, ups, newEnd + 1, tail);
+			System.arraycopy(dns, oldEnd + 1, dns, newEnd + 1, tail);
+			count += delta;
+		}
+		// the replaced lines were discounted above
+		for (int line = beg; line <= newEnd; line++) {
+			flags[line] &= ~LONG;
+		}
+		scan(beg, newEnd);
+		int last = relex(newEnd);
+		link(beg, newEnd);
+		blocks.replace(beg, oldEnd, newEnd, last, count);
+
+		if (last > newEnd) damage(newEnd + 1, last);
+		if (delta == 0 && unchanged(beg, newEnd)) return;
+
+		// include the blank lines referencing the changed lines
+		int lo = ups[beg] != 0 ? prev(beg) + 1 : 0;
+		int hi = dns[newEnd] != 0 ? next(newEnd) - 1 : count - 1;
+		damage(Math.min(lo, beg), Math.max(hi, newEnd));
+	}
+
+	// compare the rescanned lines against their prior state
+	private boolean unchanged(int beg, int end) {
+		for (int line = beg; line <= end; line++) {
+			int idx = line - beg;
+			if (begs[line] != oldBegs[idx]) return false;
+			if ((flags[line] & PAINTED) != (oldFlags[idx] & PAINTED)) return false;
+		}
+		return true;
+	}
+
+	private void damage(int beg, int end) {
+		for (LineDamage dmg : damages) {
+			dmg.add(beg, end, count);
+		}
+	}
+
+	/**
+	 * Recomputes the prior and next real line distances affected by a change to the
+	 * given range of lines, inclusive.
+	 */
+	private void link(int beg, int end) {
+		for (int line = beg; line < count; line++) {
+			int up = 0;
+			if (line > 0) {
+				int prior = line - 1;
+				up = isReal(prior) ? 1 : (ups[prior] == 0 ? 0 : ups[prior] + 1);
+			}
+			if (line > end && ups[line] == up) break; // converged
+			ups[line] = up;
+		}
+
+		for (int line = Math.min(end, count - 1); line >= 0; line--) {
+			int dn = 0;
+			if (line < count - 1) {
+				int after = line + 1;
+				dn = isReal(after) ? 1 : (dns[after] == 0 ? 0 : dns[after] + 1);
+			}
+			if (line < beg && dns[line] == dn) break; // converged
+			dns[line] = dn;
+		}
+	}
+
+	private void ensureCapacity(int size) {
+		if (size > begs.length) {
+			int cap = size + GROW;
+			begs = Arrays.copyOf(begs, cap);
+			flags = Arrays.copyOf(flags, cap);
+			ups = Arrays.copyOf(ups, cap);
+			dns = Arrays.copyOf(dns, cap);
+		}
+	}
+
+	/** Scans the given range of document lines, inclusive. */
+	private void scan(int beg, int end) {
+		for (int line = beg; line <= end; line++) {
+			scan(line);
+		}
+	}
+
+	/**
+	 * Rescans the lines following the given line until their block comment start state
+	 * converges with the prior state.
+	 *
+	 * @param end last scanned line
+	 * @return last rescanned line
+	 */
+	private int relex(int end) {
+		int line = end;
+		while (line + 1 < count) {
+			boolean open = (flags[line] & OPEN) != 0;
+			boolean in = (flags[line + 1] & IN) != 0;
+			if (open == in) break; // converged
+			scan(++line);
+		}
+		return line;
+	}
+
+	private void scan(int line) {
+		if ((flags[line] & LONG) != 0) longs--;
+		boolean in = line > 0 && (flags[line - 1] & OPEN) != 0;
+		try {
+			scanLine(line, in);
+		} catch (BadLocationException e) {
+			begs[line] = 0;
+			flags[line] = in ? BLANK | IN | OPEN : BLANK;
+		}
+	}
+
+	private void scanLine(int line, boolean in) throws BadLocationException {
+		IRegion region = doc.getLineInformation(line);
+		int offset = region.getOffset();
+		int len = region.getLength();
+
+		byte flag = 0;
+		int col = 0;
+		int pos = 0;
+		for (; pos < len; pos++) {
+			char ch = doc.getChar(offset + pos);
+			if (ch == Utils.SPC) {
+				col++;
+				flag |= SPCS;
+			} else if (ch == Utils.TAB) {
+				col += tabWidth - (col % tabWidth);
+				flag |= TABS;
+			} else {
+				break;
+			}
+		}
+		begs[line] = col;
+
+		if (in) flag |= IN;
+		if (plain || len > maxLineLen) { // no comment detection
+			if (!plain) {
+				flag |= LONG;
+				longs++;
+			}
+			if (pos == len) flag |= BLANK;
+			if (in) flag |= OPEN;
+			flags[line] = flag;
+			return;
+		}
+
+		int end = pos;
+		while (end < len && Character.isWhitespace(doc.getChar(offset + end))) {
+			end++;
+		}
+		if (end == len) {
+			flag |= BLANK;
+			if (in) flag |= OPEN;
+
+		} else {
+			boolean lexed = lexes(line);
+			if (in || lexed && isOpener(offset, pos, len)) flag |= BLOCK;
+			if (matcher(line).matches(doc, offset, len)) flag |= CMT0;
+			if (lexed ? lex(offset, pos, len, in) : in) flag |= OPEN;
+		}
+		flags[line] = flag;
+	}
+
+	// block comment opener at the given position
+	private boolean isOpener(int offset, int pos, int len) throws BadLocationException {
+		return pos + 1 < len && doc.getChar(offset + pos) == '/' && doc.getChar(offset + pos + 1) == '*';
+	}
+
+	/**
+	 * Lexes the remainder of a line for C-style block comment delimiters, skipping string
+	 * and character literals and line comments.
+	 *
+	 * @param offset line offset
+	 * @param pos    line position to start from
+	 * @param len    line length
+	 * @param in     {@code true} if starting within a block comment
+	 * @return {@code true} if ending within a block comment
+	 */
+	private boolean lex(int offset, int pos, int len, boolean in) throws BadLocationException {
+		char quote = 0;
+		for (; pos < len; pos++) {
+			char ch = doc.getChar(offset + pos);
+			if (in) {
+				if (ch == '*' && pos + 1 < len && doc.getChar(offset + pos + 1) == '/') {
+					in = false;
+					pos++;
+				}
+
+			} else if (quote != 0) {
+				if (ch == '\\') {
+					pos++;
+				} else if (ch == quote) {
+					quote = 0;
+				}
+
+			} else if (ch == '"' || ch == Utils.MARK) {
+				quote = ch;
+
+			} else if (ch == '/' && pos + 1 < len) {
+				char nxt = doc.getChar(offset + pos + 1);
+				if (nxt == '*') {
+					in = true;
+					pos++;
+				} else if (nxt == '/') {
+					return false; // line comment
+				}
+			}
+		}
+		return in;
+	}
+
+	/**
+	 * Returns {@code true} if block comments are lexed on the given line: where the line
+	 * starts in a partition having C-style line comment prefixes, other than a string or
+	 * character literal partition.
+	 */
+	private boolean lexes(int line) {
+		return lexers.computeIfAbsent(types.typeOf(line), this::isCStyle);
+	}
+
+	private boolean isCStyle(String type) {
+		if (type == null) return false;
+
+		String id = type.toLowerCase();
+		if (id.contains("string") || id.contains("char")) return false; //$NON-NLS-1$ //$NON-NLS-2$
+		List<String> prefixes = prefixMap.get(type);
+		return prefixes != null && prefixes.contains(SLASHES);
+	}
+
+	/** Returns the column 0 comment prefix matcher for the partition type of the given line. */
+	private PrefixMatcher matcher(int line) {
+		return matchers.computeIfAbsent(types.typeOf(line), t -> PrefixMatcher.of(prefixMap.get(t)));
+	}
+
+	/** Analyzes a document snapshot, then hands the result off to the UI thread. */
+	private class Analysis extends Job {
+
+		private final String text;
+		/** Partitioning of the snapshot */
+		private final ITypedRegion[] regions;
+		private final long stamp;
+		private final Display display;
+
+		Analysis(String text, ITypedRegion[] regions, long stamp, Display display) {
+			super("Indent guide analysis"); //$NON-NLS-1$
+			this.text = text;
+			this.regions = regions;
+			this.stamp = stamp;
+			this.display = display;
+			setSystem(true);
+			setPriority(Job.SHORT);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			IndentModel result = new IndentModel(new Document(text), prefixMap, tabWidth);
+			result.types.seed(regions);
+			result.limits(maxLines, maxLineLen, scanDist);
+			result.reload();
+			if (monitor.isCanceled()) return Status.CANCEL_STATUS;
+
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> adopt(this, result));
+			}
+			return Status.OK_STATUS;
+		}
+	}
+}
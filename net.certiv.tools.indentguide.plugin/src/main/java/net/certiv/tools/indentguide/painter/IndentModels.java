@@ -0,0 +1,116 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Registry of the indent models in use, shared by all painters of the same document.
+ * Models are reference counted: a model is connected on first acquisition, and
+ * disconnected once released by its last painter.
+ * <p>
+ * Models of one document are distinguished by tab width, line comment prefixes, and
+ * limits. Accessed on the UI thread only.
+ */
+final class IndentModels {
+
+	private static final Map<IDocument, List<Entry>> MODELS = new IdentityHashMap<>();
+
+	private static class Entry {
+
+		final IndentModel model;
+		final int maxLines;
+		final int maxLineLen;
+		final int scanDist;
+		int refs;
+
+		Entry(IndentModel model, int maxLines, int maxLineLen, int scanDist) {
+			this.model = model;
+			this.maxLines = maxLines;
+			this.maxLineLen = maxLineLen;
+			this.scanDist = scanDist;
+		}
+
+		boolean matches(Map<String, List<String>> prefixMap, int tabWidth, int maxLines, int maxLineLen,
+				int scanDist) {
+			return model.tabWidth() == tabWidth && model.prefixMap().equals(prefixMap) && this.maxLines == maxLines
+					&& this.maxLineLen == maxLineLen && this.scanDist == scanDist;
+		}
+	}
+
+	private IndentModels() {}
+
+	/**
+	 * Returns a connected indent model for the given document, shared where one with the
+	 * same configuration is already in use.
+	 *
+	 * @param doc        the document
+	 * @param prefixMap  line comment prefixes by partition type
+	 * @param tabWidth   tab width
+	 * @param maxLines   line count at or above which comment detection is disabled
+	 * @param maxLineLen line length above which comment detection is disabled for a line
+	 * @param scanDist   maximum distance to a reference line where degraded
+	 * @return the model; to be released by {@link #release}
+	 */
+	static IndentModel acquire(IDocument doc, Map<String, List<String>> prefixMap, int tabWidth, int maxLines,
+			int maxLineLen, int scanDist) {
+		List<Entry> entries = MODELS.computeIfAbsent(doc, d -> new ArrayList<>(1));
+		for (Entry entry : entries) {
+			if (entry.matches(prefixMap, tabWidth, maxLines, maxLineLen, scanDist)) {
+				entry.refs++;
+				return entry.model;
+			}
+		}
+
+		IndentModel model = new IndentModel(doc, prefixMap, tabWidth);
+		model.limits(maxLines, maxLineLen, scanDist);
+		Entry entry = new Entry(model, maxLines, maxLineLen, scanDist);
+		entry.refs = 1;
+		entries.add(entry);
+		model.connect();
+		return model;
+	}
+
+	/**
+	 * Releases the given model, disconnecting it if no longer in use.
+	 *
+	 * @param model a model returned by {@link #acquire}
+	 */
+	static void release(IndentModel model) {
+		List<Entry> entries = MODELS.get(model.document());
+		if (entries == null) return;
+
+		for (Entry entry : entries) {
+			if (entry.model == model) {
+				if (--entry.refs == 0) {
+					entries.remove(entry);
+					if (entries.isEmpty()) MODELS.remove(model.document());
+					model.disconnect();
+				}
+				return;
+			}
+		}
+	}
+
+	/** Returns the number of painters sharing the given model. */
+	static int refs(IndentModel model) {
+		List<Entry> entries = MODELS.get(model.document());
+		if (entries != null) {
+			for (Entry entry : entries) {
+				if (entry.model == model) return entry.refs;
+			}
+		}
+		return 0;
+	}
+}
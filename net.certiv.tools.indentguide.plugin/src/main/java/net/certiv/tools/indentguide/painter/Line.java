@@ -1,232 +1,356 @@
-/******************************************************************************
- * Copyright (c) 2006-2024 The IndentGuide Authors.
- * All rights reserved.
- *
- * This program and the accompanying materials are made available under the
- * terms of the MIT License.  A copy of the MIT License is included this
- * distribution and is available at https://opensource.org/licenses/MIT.
- *****************************************************************************/
-package net.certiv.tools.indentguide.painter;
-
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.regex.Pattern;
-
-import org.eclipse.jface.text.ITextViewer;
-import org.eclipse.swt.custom.StyledText;
-
-import net.certiv.tools.indentguide.util.MsgBuilder;
-import net.certiv.tools.indentguide.util.Utils;
-
-/**
- * Describes a single code line in a source file. Contains a {@link LineInfo} that details
- * tab stop positions.
- * <p>
- * The info is nominally computed for the current line.
- * <p>
- * If the currrent line is blank, the info is computed from the first prior real
- * (non-blank/non-column zero comment) line. If no such line exists, the info is computed
- * for the current blank line.
- * <p>
- * Another info is also computed from the first next real line in order to determine a
- * delta dentation change {@code [- <- 0 -> +]} between the prior and next real lines.
- */
-public class Line implements Iterable<Pos> {
-
-	/** Block comment pattern. */
-	private static final Pattern COMMENT = Pattern.compile( //
-			"^(?:\\h*(?:" 					// $NON-NLS-1$
-					+ "/\\*.*|"				// $NON-NLS-1$ -> ^'/*'.*$
-					+ " \\*|"				// $NON-NLS-1$ -> ^' *'$
-					+ " \\* .*|"			// $NON-NLS-1$ -> ^' * '.*$
-					+ " \\*/.*|"			// $NON-NLS-1$ -> ^' */'.*$
-					+ " (?:\\*.*)?\\*/" 	// $NON-NLS-1$ -> ^' *'.*'*/'.*$
-					+ "))$" 				// $NON-NLS-1$
-	);
-
-	// ---- Global data ---------------
-
-	/** Viewer */
-	final ITextViewer viewer;
-	/** Control */
-	final StyledText widget;
-	/** Partition specific line prefixes by partition type */
-	final Map<String, List<String>> prefixMap;
-	/** Defined tab width */
-	final int tabWidth;
-
-	// ---- Current Line Data ---------
-
-	/** Line number (0..n) */
-	final int lnNum;
-	/** Blank line */
-	final boolean blank;
-	/** In block comment */
-	final boolean block;
-	/** Column 0 line comment */
-	final boolean cmt0;
-	/** Current line text; may be blank, etc. */
-	final String txt;
-
-	/** Target Line Info */
-	LineInfo info;
-	/** No indent stops (excluding column 0 stop) */
-	boolean noDents;
-
-	/** Delta dentation for this line */
-	int delta;
-	/** Zero delta */
-	boolean delta0;
-
-	// --------------------------------
-
-	/**
-	 * Describes one line, including the state of the line itself, and the reference lines
-	 * before and after this line.
-	 *
-	 * @param viewer    containing text viewer
-	 * @param widget    containing widget control
-	 * @param prefixMap line comment prefixes by partition type
-	 * @param lnNum     line number (0..n) within the widget
-	 * @param tabWidth  tab width
-	 */
-	public Line(ITextViewer viewer, StyledText widget, Map<String, List<String>> prefixMap, int lnNum,
-			int tabWidth) {
-		this.viewer = viewer;
-		this.widget = widget;
-		this.prefixMap = prefixMap;
-		this.lnNum = lnNum;
-		this.tabWidth = tabWidth;
-
-		txt = widget.getLine(lnNum);
-		blank = txt.isBlank();
-		block = !blank && COMMENT.matcher(txt).matches();
-		cmt0 = isCol0Comment(lnNum, txt);
-
-		processLine();
-
-		noDents = stopCnt() == 1;
-		delta0 = delta == 0;
-	}
-
-	private void processLine() {
-		int num = blank ? findPrev(lnNum) : lnNum;
-		info = new LineInfo(widget, num, tabWidth);
-		if (blank) {
-			LineInfo next = new LineInfo(widget, findNext(lnNum), tabWidth);
-			delta = next.stopCnt() - info.stopCnt();
-			for (int dec = delta; dec < 0; dec++) {
-				info.removeLast(); // shift out (-) by one
-			}
-		}
-	}
-
-	/**
-	 * Find the next real (non-blank/non-col0 comment) line num starting after the given
-	 * line number. If none exists, returns the given line number.
-	 *
-	 * @param num reference line number
-	 */
-	private int findNext(int num) {
-		for (int next = num + 1, end = widget.getLineCount(); next < end; next++) {
-			String txt = widget.getLine(next);
-			if (!txt.isBlank() && !isCol0Comment(next, txt)) return next;
-		}
-		return num;
-	}
-
-	/**
-	 * Find the prior real (non-blank/non-col0 comment) line num starting before the given
-	 * line number. If none exists, returns the given line number.
-	 *
-	 * @param num reference line number
-	 */
-	private int findPrev(int num) {
-		for (int prev = num - 1; prev >= 0; prev--) {
-			String txt = widget.getLine(prev);
-			if (!txt.isBlank() && !isCol0Comment(prev, txt)) return prev;
-		}
-		return num;
-	}
-
-	private boolean isCol0Comment(int num, String txt) {
-		if (txt.isBlank()) return false;
-
-		List<String> prefixes = prefixMap.get(Utils.partitionType(viewer, num));
-		return prefixes.stream().anyMatch(p -> txt.startsWith(p));
-	}
-
-	/**
-	 * Return the column of the first text character.
-	 *
-	 * @return first text column
-	 */
-	int textCol() {
-		return info.beg;
-	}
-
-	Pos firstStop() {
-		return info.stops.peekFirst();
-	}
-
-	Pos lastStop() {
-		return info.stops.peekLast();
-	}
-
-	/**
-	 * Return the column of the last stop.
-	 *
-	 * @return the last stop column
-	 */
-	int lastStopCol() {
-		return info.lastStop().col;
-	}
-
-	/**
-	 * Returns the stop position at the given index in the stop list.
-	 *
-	 * @param idx stop position index
-	 * @return stop position
-	 * @throws IndexOutOfBoundsException
-	 */
-	Pos stop(int idx) {
-		return info.stops.get(idx);
-	}
-
-	/**
-	 * Return the total number of stop positions.
-	 *
-	 * @return stop position count
-	 */
-	int stopCnt() {
-		return info.stopCnt();
-	}
-
-	/**
-	 * Return {@code true} if the number of tab stops equals the given {@code cnt}.
-	 *
-	 * @return {@code true} if the tab stop count is {@code cnt}.
-	 */
-	boolean stopCntEquals(int cnt) {
-		return stopCnt() == cnt;
-	}
-
-	// --------------------------------
-
-	@Override
-	public Iterator<Pos> iterator() {
-		return info.iterator();
-	}
-
-	@Override
-	public String toString() {
-		MsgBuilder mb = new MsgBuilder() //
-				.append("Line %d", lnNum) //
-				.append(lnNum != info.num, "(%d)", info.num) //
-				.append(": %s", info.stops) //
-				.append(blank, " @0\t<blank>") //
-				.append(!blank, " @%d\t'%s'", info.beg, Utils.encode(info.txt));
-		return mb.toString();
-	}
-}
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.custom.StyledTextContent;
+
+import net.certiv.tools.indentguide.util.MsgBuilder;
+import net.certiv.tools.indentguide.util.Utils;
+
+/**
+ * Describes a single code line in a source file. Contains a {@link LineInfo} that details
+ * tab stop positions.
+ * <p>
+ * The info is nominally computed for the current line.
+ * <p>
+ * If the currrent line is blank, the info is computed from the first prior real
+ * (non-blank/non-column zero comment) line. If no such line exists, the info is computed
+ * for the current blank line.
+ * <p>
+ * Another info is also computed from the first next real line in order to determine a
+ * delta dentation change {@code [- <- 0 -> +]} between the prior and next real lines.
+ */
+public class Line implements Iterable<Pos> {
+
+	/** Block comment pattern. */
+	static final Pattern COMMENT = Pattern.compile( //
+			"^(?:\\h*(?:" 					// $NON-NLS-1$
+					+ "/\\*.*|"				// $NON-NLS-1$ -> ^'/*'.*$
+					+ " \\*|"				// $NON-NLS-1$ -> ^' *'$
+					+ " \\* .*|"			// $NON-NLS-1$ -> ^' * '.*$
+					+ " \\*/.*|"			// $NON-NLS-1$ -> ^' */'.*$
+					+ " (?:\\*.*)?\\*/" 	// $NON-NLS-1$ -> ^' *'.*'*/'.*$
+					+ "))$" 				// $NON-NLS-1$
+	);
+
+	/**
+	 * Block comment pattern for the head of a truncated line: the alternatives not
+	 * anchored on the line end.
+	 */
+	static final Pattern COMMENT_HEAD = Pattern.compile( //
+			"^(?:\\h*(?:" 					// $NON-NLS-1$
+					+ "/\\*.*|"				// $NON-NLS-1$ -> ^'/*'.*$
+					+ " \\* .*|"			// $NON-NLS-1$ -> ^' * '.*$
+					+ " \\*/.*" 			// $NON-NLS-1$ -> ^' */'.*$
+					+ "))$" 				// $NON-NLS-1$
+	);
+
+	/**
+	 * Block comment pattern for the head of a truncated line that ends with a block
+	 * comment terminator.
+	 */
+	static final Pattern COMMENT_TERM = Pattern.compile("^\\h* \\*.*$"); // $NON-NLS-1$ -> ^' *'.*
+
+	/** Block comment terminator */
+	private static final String TERM = "*/"; //$NON-NLS-1$
+
+	/** Characters read beyond the leading whitespace of a line */
+	private static final int HEAD = 256;
+
+	// ---- Global data ---------------
+
+	/** Viewer */
+	final ITextViewer viewer;
+	/** Control */
+	final StyledText widget;
+	/** Partition specific line prefixes by partition type */
+	final Map<String, List<String>> prefixMap;
+	/** Defined tab width */
+	final int tabWidth;
+
+	// ---- Current Line Data ---------
+
+	/** Line number (0..n) */
+	final int lnNum;
+	/** Blank line */
+	final boolean blank;
+	/** In block comment */
+	final boolean block;
+	/** Column 0 line comment */
+	final boolean cmt0;
+	/** Leading current line text, bounded; may be blank, etc.; {@code null} where model backed */
+	final String txt;
+
+	/** Target Line Info */
+	LineInfo info;
+	/** No indent stops (excluding column 0 stop) */
+	boolean noDents;
+
+	/** Delta dentation for this line */
+	int delta;
+	/** Zero delta */
+	boolean delta0;
+
+	// --------------------------------
+
+	/**
+	 * Describes one line, including the state of the line itself, and the reference lines
+	 * before and after this line.
+	 *
+	 * @param viewer    containing text viewer
+	 * @param widget    containing widget control
+	 * @param prefixMap line comment prefixes by partition type
+	 * @param lnNum     line number (0..n) within the widget
+	 * @param tabWidth  tab width
+	 */
+	public Line(ITextViewer viewer, StyledText widget, Map<String, List<String>> prefixMap, int lnNum,
+			int tabWidth) {
+		this(viewer, widget, prefixMap, lnNum, tabWidth, -1);
+	}
+
+	/**
+	 * Describes one line, optionally in a reduced mode for large files. Where reduced,
+	 * comments are not detected, the prior reference line is searched for only within the
+	 * given scan distance, and the next reference line is not considered.
+	 *
+	 * @param viewer    containing text viewer
+	 * @param widget    containing widget control
+	 * @param prefixMap line comment prefixes by partition type
+	 * @param lnNum     line number (0..n) within the widget
+	 * @param tabWidth  tab width
+	 * @param scan      scan distance where reduced; {@code -1} if not reduced
+	 */
+	Line(ITextViewer viewer, StyledText widget, Map<String, List<String>> prefixMap, int lnNum, int tabWidth,
+			int scan) {
+		this.viewer = viewer;
+		this.widget = widget;
+		this.prefixMap = prefixMap;
+		this.lnNum = lnNum;
+		this.tabWidth = tabWidth;
+
+		txt = LineText.head(widget.getContent(), lnNum, HEAD);
+		blank = txt.isBlank();
+		if (scan < 0) {
+			block = !blank && isBlockComment(lnNum, txt);
+			cmt0 = isCol0Comment(lnNum, txt);
+			processLine();
+
+		} else {
+			block = false;
+			cmt0 = false;
+			processPlainLine(scan);
+		}
+
+		noDents = stopCnt() == 1;
+		delta0 = delta == 0;
+	}
+
+	/**
+	 * Describes one line using the precomputed data held in the given indent model.
+	 * Returns {@code null} if a reference line of the given line is not visible in the
+	 * widget, in which case the line must be computed directly from the widget content.
+	 *
+	 * @param viewer  containing text viewer
+	 * @param widget  containing widget control
+	 * @param model   document indent model
+	 * @param metrics column pixel offsets; {@code null} to query the widget
+	 * @param x0      X pixel offset of the widget line start
+	 * @param lnNum   line number (0..n) within the widget
+	 * @param docNum  line number (0..n) within the document
+	 * @return the line, or {@code null}
+	 */
+	static Line of(ITextViewer viewer, StyledText widget, IndentModel model, ColumnMetrics metrics, int x0,
+			int lnNum, int docNum) {
+		if (!model.isBlank(docNum)) return new Line(viewer, widget, model, metrics, x0, lnNum, docNum, lnNum);
+
+		int real = Utils.widgetLine(viewer, model.prev(docNum));
+		int next = Utils.widgetLine(viewer, model.next(docNum));
+		if (real < 0 || next < 0) return null;
+		return new Line(viewer, widget, model, metrics, x0, lnNum, docNum, real);
+	}
+
+	private Line(ITextViewer viewer, StyledText widget, IndentModel model, ColumnMetrics metrics, int x0,
+			int lnNum, int docNum, int real) {
+		this.viewer = viewer;
+		this.widget = widget;
+		this.prefixMap = model.prefixMap();
+		this.lnNum = lnNum;
+		this.tabWidth = model.tabWidth();
+
+		txt = null;
+		blank = model.isBlank(docNum);
+		block = model.isBlock(docNum);
+		cmt0 = model.isCol0Comment(docNum);
+
+		info = new LineInfo(widget, model, metrics, x0, blank ? model.prev(docNum) : docNum, real);
+		if (blank) {
+			delta = model.stopCnt(model.next(docNum)) - info.stopCnt();
+			for (int dec = delta; dec < 0; dec++) {
+				info.removeLast(); // shift out (-) by one
+			}
+		}
+
+		noDents = stopCnt() == 1;
+		delta0 = delta == 0;
+	}
+
+	private void processLine() {
+		int num = blank ? findPrev(lnNum) : lnNum;
+		info = new LineInfo(widget, num, tabWidth);
+		if (blank) {
+			LineInfo next = new LineInfo(widget, findNext(lnNum), tabWidth);
+			delta = next.stopCnt() - info.stopCnt();
+			for (int dec = delta; dec < 0; dec++) {
+				info.removeLast(); // shift out (-) by one
+			}
+		}
+	}
+
+	private void processPlainLine(int scan) {
+		int num = lnNum;
+		if (blank) {
+			for (int prev = lnNum - 1, end = Math.max(lnNum - scan, 0); prev >= end; prev--) {
+				if (!isBlank(prev)) {
+					num = prev;
+					break;
+				}
+			}
+		}
+		info = new LineInfo(widget, num, tabWidth);
+	}
+
+	/**
+	 * Find the next real (non-blank/non-col0 comment) line num starting after the given
+	 * line number. If none exists, returns the given line number.
+	 *
+	 * @param num reference line number
+	 */
+	private int findNext(int num) {
+		for (int next = num + 1, end = widget.getLineCount(); next < end; next++) {
+			String txt = LineText.head(widget.getContent(), next, HEAD);
+			if (!txt.isBlank() && !isCol0Comment(next, txt)) return next;
+		}
+		return num;
+	}
+
+	/**
+	 * Find the prior real (non-blank/non-col0 comment) line num starting before the given
+	 * line number. If none exists, returns the given line number.
+	 *
+	 * @param num reference line number
+	 */
+	private int findPrev(int num) {
+		for (int prev = num - 1; prev >= 0; prev--) {
+			String txt = LineText.head(widget.getContent(), prev, HEAD);
+			if (!txt.isBlank() && !isCol0Comment(prev, txt)) return prev;
+		}
+		return num;
+	}
+
+	// matches the block comment pattern; where the head is truncated, its line end is
+	// checked separately for a terminator
+	private boolean isBlockComment(int num, String head) {
+		StyledTextContent content = widget.getContent();
+		if (head.length() == LineText.length(content, num)) return COMMENT.matcher(head).matches();
+		if (COMMENT_HEAD.matcher(head).matches()) return true;
+		return COMMENT_TERM.matcher(head).matches() && LineText.endsWith(content, num, TERM);
+	}
+
+	// blank test reading only the leading whitespace
+	private boolean isBlank(int num) {
+		return LineText.head(widget.getContent(), num, 1).isBlank();
+	}
+
+	private boolean isCol0Comment(int num, String txt) {
+		if (txt.isBlank()) return false;
+
+		List<String> prefixes = prefixMap.get(Utils.partitionType(viewer, Utils.modelLine(viewer, num)));
+		return PrefixMatcher.of(prefixes).matches(txt);
+	}
+
+	/**
+	 * Return the column of the first text character.
+	 *
+	 * @return first text column
+	 */
+	int textCol() {
+		return info.beg;
+	}
+
+	Pos firstStop() {
+		return info.stops.peekFirst();
+	}
+
+	Pos lastStop() {
+		return info.stops.peekLast();
+	}
+
+	/**
+	 * Return the column of the last stop.
+	 *
+	 * @return the last stop column
+	 */
+	int lastStopCol() {
+		return info.lastStop().col;
+	}
+
+	/**
+	 * Returns the stop position at the given index in the stop list.
+	 *
+	 * @param idx stop position index
+	 * @return stop position
+	 * @throws IndexOutOfBoundsException
+	 */
+	Pos stop(int idx) {
+		return info.stops.get(idx);
+	}
+
+	/**
+	 * Return the total number of stop positions.
+	 *
+	 * @return stop position count
+	 */
+	int stopCnt() {
+		return info.stopCnt();
+	}
+
+	/**
+	 * Return {@code true} if the number of tab stops equals the given {@code cnt}.
+	 *
+	 * @return {@code true} if the tab stop count is {@code cnt}.
+	 */
+	boolean stopCntEquals(int cnt) {
+		return stopCnt() == cnt;
+	}
+
+	// --------------------------------
+
+	@Override
+	public Iterator<Pos> iterator() {
+		return info.iterator();
+	}
+
+	@Override
+	public String toString() {
+		MsgBuilder mb = new MsgBuilder() //
+				.append("Line %d", lnNum) //
+				.append(lnNum != info.num, "(%d)", info.num) //
+				.append(": %s", info.stops) //
+				.append(blank, " @0\t<blank>") //
+				.append(!blank, " @%d\t'%s'", info.beg, Utils.encode(txt != null ? txt : Utils.EMPTY));
+		return mb.toString();
+	}
+}
@@ -0,0 +1,71 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+/**
+ * Accumulated range of document lines whose guides may have changed. Kept aligned with
+ * subsequent edits by the indent model, and consumed by one painter.
+ */
+class LineDamage {
+
+	/** First damaged line; {@code -1} if none */
+	private int beg = -1;
+	/** Last damaged line, inclusive */
+	private int end = -1;
+
+	/** Returns {@code true} if any lines are damaged. */
+	boolean has() {
+		return beg > -1;
+	}
+
+	/** Returns the first damaged line. */
+	int beg() {
+		return beg;
+	}
+
+	/** Returns the last damaged line, inclusive. */
+	int end() {
+		return end;
+	}
+
+	/** Clears the damage. */
+	void clear() {
+		beg = -1;
+		end = -1;
+	}
+
+	/**
+	 * Adds the given line range.
+	 *
+	 * @param beg   first line
+	 * @param end   last line, inclusive
+	 * @param count current number of lines
+	 */
+	void add(int beg, int end, int count) {
+		if (this.beg < 0) {
+			this.beg = beg;
+			this.end = end;
+		} else {
+			this.beg = Math.min(this.beg, beg);
+			this.end = Math.max(this.end, end);
+		}
+		this.end = Math.min(this.end, count - 1);
+	}
+
+	/**
+	 * Shifts the damage lying below the given line by the given number of lines.
+	 *
+	 * @param line  last line unaffected by the shift
+	 * @param delta change in line count
+	 */
+	void shift(int line, int delta) {
+		if (beg > line) beg += delta;
+		if (end > line) end += delta;
+	}
+}
@@ -1,92 +1,123 @@
-/******************************************************************************
- * Copyright (c) 2006-2024 The IndentGuide Authors.
- * All rights reserved.
- *
- * This program and the accompanying materials are made available under the
- * terms of the MIT License.  A copy of the MIT License is included this
- * distribution and is available at https://opensource.org/licenses/MIT.
- *****************************************************************************/
-package net.certiv.tools.indentguide.painter;
-
-import java.util.Iterator;
-import java.util.LinkedList;
-
-import org.eclipse.swt.custom.StyledText;
-
-import net.certiv.tools.indentguide.util.Utils;
-
-class LineInfo {
-
-	/** Tab stop positions */
-	final LinkedList<Pos> stops = new LinkedList<>();
-
-	/** Line number (0..n) */
-	final int num;
-	/** Text begin column */
-	int beg;
-	/** Text content */
-	String txt = Utils.EMPTY;
-
-	// --------------------------------
-
-	/**
-	 * @param widget   text control
-	 * @param num      line number
-	 * @param tabWidth defined tab width
-	 */
-	LineInfo(StyledText widget, int num, int tabWidth) {
-		this.num = num;
-		stops.add(Pos.P0);
-
-		txt = widget.getLine(num);
-		for (int pos = 0, col = 0, len = txt.length(); pos < len; pos++) {
-			int ch = txt.codePointAt(pos);
-			switch (ch) {
-				case Utils.SPC:
-					beg = col += Character.charCount(ch);
-					if (col % tabWidth == 0) stops.add(Pos.at(widget, num, stopCnt(), pos + 1, col));
-					break;
-
-				case Utils.TAB:
-					beg = col += tabWidth - (col % tabWidth);
-					stops.add(Pos.at(widget, num, stopCnt(), pos + 1, col));
-					break;
-
-				default:
-					beg = col;
-					return;
-			}
-		}
-	}
-
-	/**
-	 * Return the last stop position.
-	 *
-	 * @return last stop position
-	 */
-	Pos lastStop() {
-		return stops.peekLast();
-	}
-
-	/**
-	 * Remove the last indentation stop position. Does not remove the column zero stop.
-	 */
-	void removeLast() {
-		if (stops.size() > 1) {
-			stops.removeLast();
-		}
-	}
-
-	/**
-	 * Return the total number of stop positions.
-	 *
-	 * @return stop position count
-	 */
-	int stopCnt() {
-		return stops.size();
-	}
-
-	public Iterator<Pos> iterator() {
-		return stops.iterator();
-	}
-}
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.custom.StyledTextContent;
+
+import net.certiv.tools.indentguide.util.Utils;
+
+class LineInfo {
+
+	/** Tab stop positions */
+	final LinkedList<Pos> stops = new LinkedList<>();
+
+	/** Line number (0..n) */
+	final int num;
+	/** Text begin column */
+	int beg;
+	/** Line length, excluding the line delimiter */
+	int len;
+
+	// --------------------------------
+
+	/**
+	 * @param widget   text control
+	 * @param num      line number
+	 * @param tabWidth defined tab width
+	 */
+	LineInfo(StyledText widget, int num, int tabWidth) {
+		this.num = num;
+		stops.add(Pos.P0);
+
+		// read the leading whitespace only, in bounded chunks
+		StyledTextContent content = widget.getContent();
+		int offset = content.getOffsetAtLine(num);
+		len = LineText.length(content, num);
+		for (int base = 0, col = 0; base < len; base += LineText.CHUNK) {
+			String chunk = content.getTextRange(offset + base, Math.min(LineText.CHUNK, len - base));
+			for (int idx = 0; idx < chunk.length(); idx++) {
+				int pos = base + idx;
+				switch (chunk.charAt(idx)) {
+					case Utils.SPC:
+						beg = ++col;
+						if (col % tabWidth == 0) stops.add(Pos.at(widget, num, stopCnt(), pos + 1, col));
+						break;
+
+					case Utils.TAB:
+						beg = col += tabWidth - (col % tabWidth);
+						stops.add(Pos.at(widget, num, stopCnt(), pos + 1, col));
+						break;
+
+					default:
+						beg = col;
+						return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param widget  text control
+	 * @param model   document indent model
+	 * @param metrics column pixel offsets; {@code null} to query the widget
+	 * @param x0      X pixel offset of the line start
+	 * @param docNum  document line number
+	 * @param num     widget line number
+	 */
+	LineInfo(StyledText widget, IndentModel model, ColumnMetrics metrics, int x0, int docNum, int num) {
+		this.num = num;
+		stops.add(Pos.P0);
+
+		beg = model.beg(docNum);
+		for (int idx = 1, cnt = model.stopCnt(docNum); idx < cnt; idx++) {
+			int pos = model.stopPos(docNum, idx);
+			int col = idx * model.tabWidth();
+			if (metrics != null) {
+				stops.add(Pos.at(idx, pos, col, x0 + metrics.loc(col)));
+			} else {
+				stops.add(Pos.at(widget, num, idx, pos, col));
+			}
+		}
+	}
+
+	/**
+	 * Return the last stop position.
+	 *
+	 * @return last stop position
+	 */
+	Pos lastStop() {
+		return stops.peekLast();
+	}
+
+	/**
+	 * Remove the last indentation stop position. Does not remove the column zero stop.
+	 */
+	void removeLast() {
+		if (stops.size() > 1) {
+			stops.removeLast();
+		}
+	}
+
+	/**
+	 * Return the total number of stop positions.
+	 *
+	 * @return stop position count
+	 */
+	int stopCnt() {
+		return stops.size();
+	}
+
+	public Iterator<Pos> iterator() {
+		return stops.iterator();
+	}
+}
@@ -0,0 +1,136 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Arrays;
+
+/**
+ * Reusable, per-painter scratch description of the line being painted. Carries the same
+ * state as a {@link Line}, but holds the tab stops in primitive arrays so that filling
+ * it from the indent model allocates nothing in the steady state.
+ */
+class LineState {
+
+	private static final int INIT = 16;
+
+	/** Blank line */
+	boolean blank;
+	/** In block comment */
+	boolean block;
+	/** Column 0 line comment */
+	boolean cmt0;
+	/** No indent stops (excluding column 0 stop) */
+	boolean noDents;
+	/** Delta dentation for this line */
+	int delta;
+	/** Zero delta */
+	boolean delta0;
+	/** Text begin column of the reference line */
+	int textCol;
+
+	/** Visual column by stop index */
+	private int[] cols = new int[INIT];
+	/** X pixel offset by stop index */
+	private int[] locs = new int[INIT];
+	/** Number of stops */
+	private int size;
+
+	/**
+	 * Fills this state for the given document line from the indent model. Where the model
+	 * is degraded for the line, comment state is ignored, and a blank line takes the stops
+	 * of a prior real line within the scan distance, without regard to the next real line.
+	 * The reference lines of a blank line are to be visible in the widget.
+	 *
+	 * @param model   document indent model
+	 * @param metrics column pixel offsets
+	 * @param x0      X pixel offset of the widget line start
+	 * @param docNum  document line number
+	 */
+	void fill(IndentModel model, ColumnMetrics metrics, int x0, int docNum) {
+		boolean degraded = model.isDegraded(docNum);
+		blank = model.isBlank(docNum);
+		block = !degraded && model.isBlock(docNum);
+		cmt0 = !degraded && model.isCol0Comment(docNum);
+
+		int real = docNum;
+		delta = 0;
+		if (blank) {
+			real = model.prev(docNum);
+			if (!degraded) {
+				delta = model.stopCnt(model.next(docNum)) - model.stopCnt(real);
+			} else if (docNum - real > model.scanDistance()) {
+				real = docNum;
+			}
+		}
+		textCol = model.beg(real);
+
+		size = 0;
+		add(Pos.P0.col, Pos.P0.loc);
+		int cnt = model.stopCnt(real) + Math.min(delta, 0); // shift out (-)
+		for (int idx = 1, tabWidth = model.tabWidth(); idx < cnt; idx++) {
+			int col = idx * tabWidth;
+			add(col, x0 + metrics.loc(col));
+		}
+		done();
+	}
+
+	/**
+	 * Fills this state from the given, directly computed, line.
+	 *
+	 * @param line the line description
+	 */
+	void fill(Line line) {
+		blank = line.blank;
+		block = line.block;
+		cmt0 = line.cmt0;
+		delta = line.delta;
+		textCol = line.textCol();
+
+		size = 0;
+		for (Pos stop : line) {
+			add(stop.col, stop.loc);
+		}
+		done();
+	}
+
+	private void add(int col, int loc) {
+		if (size == cols.length) {
+			cols = Arrays.copyOf(cols, size * 2);
+			locs = Arrays.copyOf(locs, size * 2);
+		}
+		cols[size] = col;
+		locs[size] = loc;
+		size++;
+	}
+
+	private void done() {
+		noDents = size == 1;
+		delta0 = delta == 0;
+	}
+
+	/** Returns the total number of stop positions. */
+	int stopCnt() {
+		return size;
+	}
+
+	/** Returns the visual column of the stop at the given index. */
+	int col(int idx) {
+		return cols[idx];
+	}
+
+	/** Returns the X pixel offset of the stop at the given index. */
+	int loc(int idx) {
+		return locs[idx];
+	}
+
+	/** Returns the column of the last stop. */
+	int lastStopCol() {
+		return cols[size - 1];
+	}
+}
@@ -0,0 +1,84 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import org.eclipse.swt.custom.StyledTextContent;
+
+import net.certiv.tools.indentguide.util.Utils;
+
+/**
+ * Reads widget line text in small, bounded chunks, so that examining the leading
+ * whitespace of a line does not copy the whole line.
+ */
+final class LineText {
+
+	/** Characters read per chunk */
+	static final int CHUNK = 64;
+
+	private LineText() {}
+
+	/**
+	 * Returns the length of the given widget line, excluding the line delimiter.
+	 *
+	 * @param content widget content
+	 * @param num     widget line number
+	 * @return line length
+	 */
+	static int length(StyledTextContent content, int num) {
+		int offset = content.getOffsetAtLine(num);
+		if (num + 1 >= content.getLineCount()) return content.getCharCount() - offset;
+
+		int end = content.getOffsetAtLine(num + 1);
+		for (int cnt = 0; cnt < 2 && end > offset; cnt++) {
+			char ch = content.getTextRange(end - 1, 1).charAt(0);
+			if (ch != Utils.NLC && ch != Utils.RET) break;
+			end--;
+		}
+		return end - offset;
+	}
+
+	/**
+	 * Returns the text of the given widget line through its leading whitespace and at most
+	 * the given number of further characters. For a blank line, returns the whole line.
+	 *
+	 * @param content widget content
+	 * @param num     widget line number
+	 * @param max     maximum number of characters following the leading whitespace
+	 * @return leading line text
+	 */
+	static String head(StyledTextContent content, int num, int max) {
+		int offset = content.getOffsetAtLine(num);
+		int len = length(content, num);
+		for (int base = 0; base < len; base += CHUNK) {
+			String chunk = content.getTextRange(offset + base, Math.min(CHUNK, len - base));
+			for (int idx = 0; idx < chunk.length(); idx++) {
+				if (!Character.isWhitespace(chunk.charAt(idx))) {
+					return content.getTextRange(offset, Math.min(base + idx + max, len));
+				}
+			}
+		}
+		return content.getTextRange(offset, len);
+	}
+
+	/**
+	 * Returns {@code true} if the given widget line, excluding the line delimiter, ends
+	 * with the given suffix. Reads only the suffix.
+	 *
+	 * @param content widget content
+	 * @param num     widget line number
+	 * @param suffix  line end text
+	 */
+	static boolean endsWith(StyledTextContent content, int num, String suffix) {
+		int len = length(content, num);
+		if (len < suffix.length()) return false;
+
+		int offset = content.getOffsetAtLine(num) + len - suffix.length();
+		return content.getTextRange(offset, suffix.length()).equals(suffix);
+	}
+}
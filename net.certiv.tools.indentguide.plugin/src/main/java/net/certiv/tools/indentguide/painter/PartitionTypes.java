@@ -0,0 +1,222 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Arrays;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.DocumentPartitioningChangedEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IDocumentPartitioningListener;
+import org.eclipse.jface.text.IDocumentPartitioningListenerExtension2;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITypedRegion;
+
+import net.certiv.tools.indentguide.util.Utils;
+
+/**
+ * Per-document cache of the partition type at the start of each line. Entries are keyed
+ * on the line, and are shifted with the lines following an edit; the edited lines are
+ * resolved anew. Partitioning changes invalidate only the lines within the changed
+ * region, and are reported to the listener, if any.
+ */
+class PartitionTypes
+		implements IDocumentListener, IDocumentPartitioningListener, IDocumentPartitioningListenerExtension2 {
+
+	private static final int GROW = 256;
+
+	/** Receives the lines whose partitioning changed. */
+	interface Listener {
+
+		/**
+		 * Reports a partitioning change. Within a document change, the lines refer to the
+		 * changed document.
+		 *
+		 * @param beg first line
+		 * @param end last line, inclusive
+		 */
+		void repartitioned(int beg, int end);
+	}
+
+	private final IDocument doc;
+	private final Listener listener;
+
+	/** Partition type by line; {@code null} if unresolved */
+	private String[] types = new String[0];
+
+	/** First line of the pending change; {@code -1} if unknown */
+	private int chgBeg = -1;
+	/** Expected last line of the pending change, following the change */
+	private int chgEnd = -1;
+
+	/** Number of resolutions performed */
+	private int queries;
+
+	PartitionTypes(IDocument doc) {
+		this(doc, null);
+	}
+
+	PartitionTypes(IDocument doc, Listener listener) {
+		this.doc = doc;
+		this.listener = listener;
+	}
+
+	/** Starts tracking document and partitioning changes. */
+	void connect() {
+		doc.addDocumentListener(this);
+		doc.addDocumentPartitioningListener(this);
+	}
+
+	/** Stops tracking document and partitioning changes. */
+	void disconnect() {
+		doc.removeDocumentPartitioningListener(this);
+		doc.removeDocumentListener(this);
+	}
+
+	/**
+	 * Returns the partition type at the start of the given document line.
+	 *
+	 * @param line document line number
+	 * @return partition type
+	 */
+	String typeOf(int line) {
+		if (line < types.length && types[line] != null) return types[line];
+
+		try {
+			queries++;
+			String type = doc.getContentType(doc.getLineOffset(line));
+			if (line >= types.length) {
+				types = Arrays.copyOf(types, line + GROW);
+			}
+			types[line] = type;
+			return type;
+
+		} catch (BadLocationException e) {
+			return Utils.DefContentType;
+		}
+	}
+
+	/**
+	 * Sets the types of all lines from the given partitioning, rather than resolving each
+	 * from the document. Used where the partitioning was captured with a snapshot of the
+	 * document text.
+	 *
+	 * @param regions partitions covering the document, in offset order
+	 */
+	void seed(ITypedRegion[] regions) {
+		int lines = doc.getNumberOfLines();
+		if (types.length < lines) types = new String[lines];
+		try {
+			for (int line = 0, idx = 0; line < lines; line++) {
+				int offset = doc.getLineOffset(line);
+				while (idx + 1 < regions.length && regions[idx + 1].getOffset() <= offset) {
+					idx++;
+				}
+				types[line] = idx < regions.length ? regions[idx].getType() : Utils.DefContentType;
+			}
+		} catch (BadLocationException e) {
+			clear();
+		}
+	}
+
+	/** Returns the number of partition type resolutions performed. */
+	int queries() {
+		return queries;
+	}
+
+	/** Discards all cached types. */
+	void clear() {
+		Arrays.fill(types, null);
+	}
+
+	/**
+	 * Shifts the entries following the change, and clears those of the changed lines,
+	 * ahead of the partitioning change notification, which refers to the new lines.
+	 */
+	@Override
+	public void documentAboutToBeChanged(DocumentEvent evt) {
+		try {
+			String text = evt.getText();
+			int beg = doc.getLineOfOffset(evt.getOffset());
+			int oldEnd = doc.getLineOfOffset(evt.getOffset() + evt.getLength());
+			int newEnd = beg + (text != null ? doc.computeNumberOfLines(text) : 0);
+			shift(beg, oldEnd, newEnd);
+			chgBeg = beg;
+			chgEnd = newEnd;
+
+		} catch (BadLocationException e) {
+			clear();
+			chgBeg = -1;
+		}
+	}
+
+	@Override
+	public void documentChanged(DocumentEvent evt) {
+		if (chgBeg < 0) return;
+		try {
+			// delimiters joined across the change boundary: the shift was off
+			String text = evt.getText();
+			int end = doc.getLineOfOffset(evt.getOffset() + (text != null ? text.length() : 0));
+			if (end != chgEnd) clear(chgBeg);
+
+		} catch (BadLocationException e) {
+			clear();
+		}
+		chgBeg = -1;
+	}
+
+	// replace the entries of the lines beg..oldEnd with cleared entries for beg..newEnd
+	private void shift(int beg, int oldEnd, int newEnd) {
+		if (beg >= types.length) return;
+
+		int delta = newEnd - oldEnd;
+		if (delta != 0 && oldEnd + 1 < types.length) {
+			int tail = types.length - oldEnd - 1;
+			if (delta > 0) types = Arrays.copyOf(types, types.length + delta);
+			System.arraycopy(types, oldEnd + 1, types, newEnd + 1, tail);
+			if (delta < 0) Arrays.fill(types, types.length + delta, types.length, null);
+		}
+		Arrays.fill(types, beg, Math.min(newEnd + 1, types.length), null);
+	}
+
+	private void clear(int from) {
+		if (from < types.length) Arrays.fill(types, from, types.length, null);
+	}
+
+	@Override
+	public void documentPartitioningChanged(IDocument document) {
+		clearAll();
+	}
+
+	@Override
+	public void documentPartitioningChanged(DocumentPartitioningChangedEvent evt) {
+		IRegion region = evt.getCoverage();
+		if (region == null) {
+			clearAll();
+			return;
+		}
+
+		try {
+			int beg = doc.getLineOfOffset(region.getOffset());
+			int end = doc.getLineOfOffset(region.getOffset() + region.getLength());
+			if (beg < types.length) Arrays.fill(types, beg, Math.min(end + 1, types.length), null);
+			if (listener != null) listener.repartitioned(beg, end);
+
+		} catch (BadLocationException e) {
+			clearAll();
+		}
+	}
+
+	private void clearAll() {
+		clear();
+		if (listener != null) listener.repartitioned(0, doc.getNumberOfLines() - 1);
+	}
+}
@@ -0,0 +1,128 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Compiled matcher for a set of column 0 line comment prefixes. Prefixes are grouped by
+ * their first character, so that a line is rejected on a single character comparison
+ * in the common case. Matches directly against document characters, without copying
+ * the line text.
+ * <p>
+ * Matchers are immutable and shared by equal prefix lists.
+ */
+final class PrefixMatcher {
+
+	/** Matcher that never matches */
+	static final PrefixMatcher NONE = new PrefixMatcher(new char[0], new char[0][][]);
+
+	private static final Map<List<String>, PrefixMatcher> CACHE = new ConcurrentHashMap<>();
+
+	/** Distinct first characters, sorted */
+	private final char[] firsts;
+	/** Remaining prefix characters by first character index */
+	private final char[][][] tails;
+
+	private PrefixMatcher(char[] firsts, char[][][] tails) {
+		this.firsts = firsts;
+		this.tails = tails;
+	}
+
+	/**
+	 * Returns the matcher for the given prefixes.
+	 *
+	 * @param prefixes line comment prefixes; may be {@code null}
+	 * @return the compiled matcher
+	 */
+	static PrefixMatcher of(List<String> prefixes) {
+		if (prefixes == null || prefixes.isEmpty()) return NONE;
+		return CACHE.computeIfAbsent(List.copyOf(prefixes), PrefixMatcher::compile);
+	}
+
+	private static PrefixMatcher compile(List<String> prefixes) {
+		char[] firsts = prefixes.stream() //
+				.filter(p -> !p.isEmpty()) //
+				.map(p -> p.substring(0, 1)) //
+				.distinct() //
+				.sorted() //
+				.collect(Collectors.joining()) //
+				.toCharArray();
+
+		char[][][] tails = new char[firsts.length][][];
+		for (int idx = 0; idx < firsts.length; idx++) {
+			char first = firsts[idx];
+			tails[idx] = prefixes.stream() //
+					.filter(p -> !p.isEmpty() && p.charAt(0) == first) //
+					.map(p -> p.substring(1).toCharArray()) //
+					.sorted((a, b) -> a.length - b.length) //
+					.toArray(char[][]::new);
+		}
+		return new PrefixMatcher(firsts, tails);
+	}
+
+	/**
+	 * Returns {@code true} if the given document line region begins with a prefix.
+	 *
+	 * @param doc    the document
+	 * @param offset line start offset
+	 * @param len    line length
+	 * @throws BadLocationException if the region is not within the document
+	 */
+	boolean matches(IDocument doc, int offset, int len) throws BadLocationException {
+		if (len == 0 || firsts.length == 0) return false;
+		int idx = Arrays.binarySearch(firsts, doc.getChar(offset));
+		if (idx < 0) return false;
+
+		for (char[] tail : tails[idx]) {
+			if (tail.length >= len) return false; // sorted by length
+			if (matches(doc, offset + 1, tail)) return true;
+		}
+		return false;
+	}
+
+	private boolean matches(IDocument doc, int offset, char[] tail) throws BadLocationException {
+		for (int pos = 0; pos < tail.length; pos++) {
+			if (doc.getChar(offset + pos) != tail[pos]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns {@code true} if the given text begins with a prefix.
+	 *
+	 * @param txt the line text
+	 */
+	boolean matches(CharSequence txt) {
+		int len = txt.length();
+		if (len == 0 || firsts.length == 0) return false;
+		int idx = Arrays.binarySearch(firsts, txt.charAt(0));
+		if (idx < 0) return false;
+
+		for (char[] tail : tails[idx]) {
+			if (tail.length >= len) return false; // sorted by length
+			if (matches(txt, tail)) return true;
+		}
+		return false;
+	}
+
+	private boolean matches(CharSequence txt, char[] tail) {
+		for (int pos = 0; pos < tail.length; pos++) {
+			if (txt.charAt(pos + 1) != tail[pos]) return false;
+		}
+		return true;
+	}
+}
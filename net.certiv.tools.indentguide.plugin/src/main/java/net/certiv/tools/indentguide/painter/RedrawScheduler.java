@@ -0,0 +1,104 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.painter;
+
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Per-painter accumulator of redraw requests. Requests made within one UI event-loop
+ * turn are unioned and flushed once, on the next turn.
+ * <p>
+ * Line damage is not held here; it is accumulated by the indent model, which keeps it
+ * aligned with subsequent edits, and is consumed by the flush action.
+ */
+class RedrawScheduler {
+
+	private final Display display;
+	private final Runnable flush;
+	private final Runnable runner = this::run;
+
+	/** Flush pending */
+	private boolean pending;
+	/** Full redraw requested */
+	private boolean all;
+	/** Disposed; ignores further requests */
+	private boolean disposed;
+
+	/** Number of requests */
+	private int requests;
+	/** Number of requests merged into an already pending flush */
+	private int coalesced;
+
+	/**
+	 * Creates a new scheduler.
+	 *
+	 * @param display the display to flush on
+	 * @param flush   action performing the accumulated redraw
+	 */
+	RedrawScheduler(Display display, Runnable flush) {
+		this.display = display;
+		this.flush = flush;
+	}
+
+	/** Requests a redraw of the damaged lines. */
+	void request() {
+		schedule();
+	}
+
+	/** Requests a redraw of all visible content. */
+	void requestAll() {
+		all = true;
+		schedule();
+	}
+
+	/** Returns {@code true} if the pending flush is to redraw all visible content. */
+	boolean isAll() {
+		return all;
+	}
+
+	/** Returns the number of requests received. */
+	int requests() {
+		return requests;
+	}
+
+	/** Returns the number of requests merged into an already pending flush. */
+	int coalesced() {
+		return coalesced;
+	}
+
+	/** Drops any pending flush and ignores further requests. */
+	void dispose() {
+		disposed = true;
+		pending = false;
+		all = false;
+	}
+
+	private void schedule() {
+		if (disposed) return;
+		requests++;
+		if (pending) {
+			coalesced++;
+			return;
+		}
+
+		pending = true;
+		if (display.isDisposed()) return;
+		display.asyncExec(runner);
+	}
+
+	private void run() {
+		if (!pending) return;
+		try {
+			flush.run();
+		} finally {
+			pending = false;
+			all = false;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.preferences;
+
+import java.util.Objects;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.ui.themes.ColorUtil;
+
+import net.certiv.tools.indentguide.Activator;
+import net.certiv.tools.indentguide.util.Utils;
+
+/**
+ * Immutable snapshot of the preferences used by the guide painters. Read once per burst
+ * of preference changes, and published as a whole, so that painters never observe a
+ * partially applied change. Equal snapshots describe identical painting.
+ */
+public final class GuideConfig {
+
+	private static volatile GuideConfig current;
+
+	public final int lineAlpha;
+	public final int lineStyle;
+	public final int lineWidth;
+	public final int lineShift;
+	/** Line color for the current theme */
+	public final RGB lineColor;
+
+	public final boolean drawLeadEdge;
+	public final boolean drawBlankLn;
+	public final boolean drawComment;
+	public final boolean layerCache;
+
+	public final int largeLines;
+	public final int largeLineLen;
+	public final int scanDist;
+
+	private GuideConfig(IPreferenceStore store) {
+		lineAlpha = store.getInt(Pref.LINE_ALPHA);
+		lineStyle = store.getInt(Pref.LINE_STYLE);
+		lineWidth = store.getInt(Pref.LINE_WIDTH);
+		lineShift = store.getInt(Pref.LINE_SHIFT);
+		String key = Utils.isDarkTheme() ? Pref.LINE_COLOR + Pref.DARK : Pref.LINE_COLOR;
+		lineColor = ColorUtil.getColorValue(store.getString(key));
+
+		drawLeadEdge = store.getBoolean(Pref.DRAW_LEAD_EDGE);
+		drawBlankLn = store.getBoolean(Pref.DRAW_BLANK_LINE);
+		drawComment = store.getBoolean(Pref.DRAW_COMMENT_BLOCK);
+		layerCache = store.getBoolean(Pref.LAYER_CACHE);
+
+		largeLines = store.getInt(Pref.LARGE_LINES);
+		largeLineLen = store.getInt(Pref.LARGE_LINE_LENGTH);
+		scanDist = store.getInt(Pref.SCAN_DISTANCE);
+	}
+
+	/** Returns the current snapshot, reading the preferences on first use. */
+	public static GuideConfig current() {
+		GuideConfig config = current;
+		if (config == null) {
+			config = publish(Activator.getDefault().getPreferenceStore());
+		}
+		return config;
+	}
+
+	/**
+	 * Reads a new snapshot from the given store, without publishing it.
+	 *
+	 * @param store the preference store
+	 * @return the snapshot
+	 */
+	static GuideConfig of(IPreferenceStore store) {
+		return new GuideConfig(store);
+	}
+
+	/**
+	 * Reads a new snapshot from the given store, and publishes it as current, unless equal
+	 * to the current snapshot.
+	 *
+	 * @param store the preference store
+	 * @return the current snapshot
+	 */
+	public static synchronized GuideConfig publish(IPreferenceStore store) {
+		GuideConfig config = of(store);
+		if (!config.equals(current)) current = config;
+		return current;
+	}
+
+	/** Returns {@code true} if the limits of the large file mode differ. */
+	public boolean limitsDiffer(GuideConfig other) {
+		return other == null || largeLines != other.largeLines || largeLineLen != other.largeLineLen
+				|| scanDist != other.scanDist;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(lineAlpha, lineStyle, lineWidth, lineShift, lineColor, drawLeadEdge, drawBlankLn,
+				drawComment, layerCache, largeLines, largeLineLen, scanDist);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof GuideConfig)) return false;
+		GuideConfig other = (GuideConfig) obj;
+		return lineAlpha == other.lineAlpha && lineStyle == other.lineStyle && lineWidth == other.lineWidth
+				&& lineShift == other.lineShift && Objects.equals(lineColor, other.lineColor)
+				&& drawLeadEdge == other.drawLeadEdge && drawBlankLn == other.drawBlankLn
+				&& drawComment == other.drawComment && layerCache == other.layerCache
+				&& largeLines == other.largeLines && largeLineLen == other.largeLineLen
+				&& scanDist == other.scanDist;
+	}
+}
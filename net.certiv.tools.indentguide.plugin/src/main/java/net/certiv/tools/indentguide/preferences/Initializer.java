@@ -34,6 +34,10 @@ public class Initializer extends AbstractPreferenceInitializer {
 		store.setDefault(Pref.DRAW_LEAD_EDGE, false);
 		store.setDefault(Pref.DRAW_BLANK_LINE, true);
 		store.setDefault(Pref.DRAW_COMMENT_BLOCK, false);
+		store.setDefault(Pref.LAYER_CACHE, false);
+		store.setDefault(Pref.LARGE_LINES, 200000);
+		store.setDefault(Pref.LARGE_LINE_LENGTH, 10000);
+		store.setDefault(Pref.SCAN_DISTANCE, 200);
 		store.setDefault(Pref.CONTENT_TYPES, "");
 	}
 }
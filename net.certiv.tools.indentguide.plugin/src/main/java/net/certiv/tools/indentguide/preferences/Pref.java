@@ -25,5 +25,11 @@ public class Pref {
 	public static final String DRAW_LEAD_EDGE = KEY + "draw_left_edge"; //$NON-NLS-1$
 	public static final String DRAW_BLANK_LINE = KEY + "draw_blank_line"; //$NON-NLS-1$
 	public static final String DRAW_COMMENT_BLOCK = KEY + "draw_comment_block"; //$NON-NLS-1$
+	public static final String LAYER_CACHE = KEY + "layer_cache"; //$NON-NLS-1$
+
+	public static final String LARGE_LINES = KEY + "large_lines"; //$NON-NLS-1$
+	public static final String LARGE_LINE_LENGTH = KEY + "large_line_length"; //$NON-NLS-1$
+	public static final String SCAN_DISTANCE = KEY + "scan_distance"; //$NON-NLS-1$
+
 	public static final String CONTENT_TYPES = KEY + "content_types"; //$NON-NLS-1$
 }
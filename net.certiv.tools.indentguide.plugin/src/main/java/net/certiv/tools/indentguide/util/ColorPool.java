@@ -0,0 +1,126 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.texteditor.AbstractTextEditor;
+
+/**
+ * Pool of the colors used to draw guides, shared by all painters. Colors are pooled per
+ * display and keyed by RGB. Pooled colors are borrowed: they must not be disposed by the
+ * borrower, and are disposed with their display.
+ * <p>
+ * Also caches the dark theme resolution. The cache is invalidated on a change to the
+ * editor foreground or background color preferences, and on a theme change.
+ */
+public final class ColorPool {
+
+	private static final Map<Display, Map<RGB, Color>> POOLS = new HashMap<>();
+
+	/** Invalidates the dark theme resolution on an editor color change */
+	private static final IPreferenceChangeListener EditorColors = evt -> {
+		String key = evt.getKey();
+		if (key.startsWith(AbstractTextEditor.PREFERENCE_COLOR_FOREGROUND)
+				|| key.startsWith(AbstractTextEditor.PREFERENCE_COLOR_BACKGROUND)) {
+			invalidate();
+		}
+	};
+
+	/** Dark theme resolution; {@code null} if unresolved */
+	private static volatile Boolean dark;
+	private static boolean listening;
+
+	private ColorPool() {}
+
+	/**
+	 * Returns the pooled color of the given RGB value on the given display.
+	 *
+	 * @param display the display
+	 * @param rgb     the color value
+	 * @return the shared color; not to be disposed
+	 */
+	public static Color get(Display display, RGB rgb) {
+		synchronized (POOLS) {
+			Map<RGB, Color> pool = POOLS.get(display);
+			if (pool == null) {
+				pool = new HashMap<>();
+				POOLS.put(display, pool);
+				display.disposeExec(() -> dispose(display));
+			}
+			return pool.computeIfAbsent(rgb, value -> new Color(display, value));
+		}
+	}
+
+	/** Returns the number of colors pooled for the given display. */
+	public static int size(Display display) {
+		synchronized (POOLS) {
+			Map<RGB, Color> pool = POOLS.get(display);
+			return pool != null ? pool.size() : 0;
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the current platform theme is 'dark'. Resolved once, then
+	 * cached until invalidated.
+	 *
+	 * @see Utils#isDarkTheme()
+	 */
+	public static boolean isDarkTheme() {
+		Boolean now = dark;
+		if (now == null) {
+			listen();
+			now = Utils.evalDarkTheme();
+			dark = now;
+		}
+		return now;
+	}
+
+	/** Discards the cached dark theme resolution. */
+	public static void invalidate() {
+		dark = null;
+	}
+
+	private static synchronized void listen() {
+		if (!listening) {
+			InstanceScope.INSTANCE.getNode(Utils.EditorsID).addPreferenceChangeListener(EditorColors);
+			listening = true;
+		}
+	}
+
+	/**
+	 * Stops tracking the editor color preferences, and discards the cached dark theme
+	 * resolution. Called on bundle stop.
+	 */
+	public static synchronized void dispose() {
+		if (listening) {
+			InstanceScope.INSTANCE.getNode(Utils.EditorsID).removePreferenceChangeListener(EditorColors);
+			listening = false;
+		}
+		dark = null;
+	}
+
+	private static void dispose(Display display) {
+		Map<RGB, Color> pool;
+		synchronized (POOLS) {
+			pool = POOLS.remove(display);
+		}
+		if (pool != null) {
+			for (Color color : pool.values()) {
+				color.dispose();
+			}
+		}
+	}
+}
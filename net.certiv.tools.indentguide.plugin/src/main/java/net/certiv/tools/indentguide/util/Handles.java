@@ -0,0 +1,102 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-class cache of the method handles resolved for reflective member access. Members
+ * are resolved once per class, member name, and parameter types, including where not
+ * found, so that repeated access does not rescan the class hierarchy.
+ * <p>
+ * Fields are accessed through getter handles. The cache is held by class value, and so
+ * does not prevent unloading of the cached classes.
+ */
+final class Handles {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/** Negative cache marker */
+	private static final MethodHandle NONE = MethodHandles.constant(Object.class, null);
+
+	private static final ClassValue<Map<String, MethodHandle>> CACHE = new ClassValue<>() {
+
+		@Override
+		protected Map<String, MethodHandle> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private Handles() {}
+
+	/**
+	 * Returns the handle of the given method of the given class or a superclass thereof.
+	 * The handle takes the target as its first argument, also where the method is static.
+	 *
+	 * @param cls    class to consider
+	 * @param name   method name
+	 * @param params method parameter types
+	 * @return method handle, or {@code null} if not found or not accessible
+	 */
+	static MethodHandle method(Class<?> cls, String name, Class<?>[] params) {
+		StringBuilder key = new StringBuilder(name).append('(');
+		for (Class<?> param : params) {
+			key.append(param.getName()).append(';');
+		}
+		MethodHandle handle = CACHE.get(cls).computeIfAbsent(key.toString(), k -> {
+			Method method = Utils.findMethod(cls, name, params);
+			if (method == null) return NONE;
+			try {
+				method.setAccessible(true);
+				MethodHandle found = LOOKUP.unreflect(method);
+				// take, and ignore, the target as for an instance method
+				if (Modifier.isStatic(method.getModifiers())) {
+					found = MethodHandles.dropArguments(found, 0, Object.class);
+				}
+				return found;
+			} catch (IllegalAccessException | RuntimeException e) {
+				return NONE;
+			}
+		});
+		return handle != NONE ? handle : null;
+	}
+
+	/**
+	 * Returns the getter handle of the given field of the given class or a superclass
+	 * thereof.
+	 *
+	 * @param cls  class to consider
+	 * @param name field name
+	 * @return getter handle, or {@code null} if not found or not accessible
+	 */
+	static MethodHandle getter(Class<?> cls, String name) {
+		MethodHandle handle = CACHE.get(cls).computeIfAbsent(name, k -> {
+			Field field = Utils.findField(cls, name);
+			if (field == null) return NONE;
+			try {
+				field.setAccessible(true);
+				return LOOKUP.unreflectGetter(field);
+			} catch (IllegalAccessException | RuntimeException e) {
+				return NONE;
+			}
+		});
+		return handle != NONE ? handle : null;
+	}
+
+	/** Returns the number of members resolved, or found missing, for the given class. */
+	static int size(Class<?> cls) {
+		return CACHE.get(cls).size();
+	}
+}
@@ -0,0 +1,130 @@
+/******************************************************************************
+ * Copyright (c) 2006-2024 The IndentGuide Authors.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the MIT License.  A copy of the MIT License is included this
+ * distribution and is available at https://opensource.org/licenses/MIT.
+ *****************************************************************************/
+package net.certiv.tools.indentguide.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.jface.text.source.ISourceViewer;
+
+/**
+ * Cache of the line prefix tables of source viewers, shared by all editors of a content
+ * type and viewer configuration class. Tables are immutable, and their prefix lists are
+ * interned, so that equal lists are shared across tables.
+ * <p>
+ * The prefixes reported by a viewer are compared against the cached table on each
+ * lookup; a table no longer matching is replaced. Keys hold class names rather than
+ * classes, so that the cache does not retain the classes of uninstalled bundles.
+ */
+public final class PrefixTables {
+
+	private static final Map<String, Map<String, List<String>>> TABLES = new ConcurrentHashMap<>();
+	private static final Map<List<String>, List<String>> LISTS = new ConcurrentHashMap<>();
+
+	/** Number of tables replaced on a prefix mismatch */
+	private static volatile int invalidations;
+
+	private PrefixTables() {}
+
+	/**
+	 * Returns the prefix table for the given viewer. Filters all {@code null} or empty
+	 * prefix strings.
+	 *
+	 * @param type   content type of the viewer document
+	 * @param config viewer configuration; may be {@code null}
+	 * @param viewer document viewer
+	 * @return shared, immutable map of {@code key=doc partition type; value=prefixes}
+	 * @throws Exception on any failure to extract the prefix map
+	 */
+	public static Map<String, List<String>> lookup(IContentType type, Object config, ISourceViewer viewer)
+			throws Exception {
+		Map<String, String[]> reported = Utils.getValue(viewer, Utils.PREFIXES);
+		String key = keyOf(type, config != null ? config : viewer);
+
+		Map<String, List<String>> table = TABLES.get(key);
+		if (table != null && matches(table, reported)) return table;
+
+		Map<String, List<String>> next = tableOf(reported);
+		if (table != null) invalidations++;
+		TABLES.put(key, next);
+		return next;
+	}
+
+	/**
+	 * Returns an immutable prefix table built from the given reported prefixes, sharing
+	 * the interned prefix lists.
+	 *
+	 * @param reported prefixes by partition type; may be {@code null}
+	 * @return map of {@code key=doc partition type; value=prefixes}
+	 */
+	static Map<String, List<String>> tableOf(Map<String, String[]> reported) {
+		if (reported == null || reported.isEmpty()) return Collections.emptyMap();
+
+		Map<String, List<String>> table = new HashMap<>();
+		reported.forEach((k, v) -> table.put(k, intern(v)));
+		return Collections.unmodifiableMap(table);
+	}
+
+	/** Returns the number of cached tables. */
+	public static int size() {
+		return TABLES.size();
+	}
+
+	/** Returns the number of tables replaced on a prefix mismatch. */
+	public static int invalidations() {
+		return invalidations;
+	}
+
+	/** Discards all cached tables. */
+	public static void clear() {
+		TABLES.clear();
+		LISTS.clear();
+	}
+
+	private static String keyOf(IContentType type, Object config) {
+		String id = type != null ? type.getId() : Utils.UNKNOWN;
+		return id + Utils.DOT + config.getClass().getName();
+	}
+
+	private static List<String> intern(String[] prefixes) {
+		if (prefixes == null) return List.of();
+		List<String> vals = Arrays.stream(prefixes) //
+				.filter(p -> p != null && !p.isBlank()) //
+				.toList();
+		return LISTS.computeIfAbsent(vals, List::copyOf);
+	}
+
+	// compares the table against the reported prefixes, as filtered, without copying
+	private static boolean matches(Map<String, List<String>> table, Map<String, String[]> reported) {
+		if (reported == null) return table.isEmpty();
+		if (table.size() != reported.size()) return false;
+
+		for (Map.Entry<String, String[]> entry : reported.entrySet()) {
+			List<String> vals = table.get(entry.getKey());
+			if (vals == null) return false;
+
+			int idx = 0;
+			String[] prefixes = entry.getValue();
+			if (prefixes != null) {
+				for (String p : prefixes) {
+					if (p == null || p.isBlank()) continue;
+					if (idx == vals.size() || !vals.get(idx).equals(p)) return false;
+					idx++;
+				}
+			}
+			if (idx != vals.size()) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,47 @@
+package net.certiv.tools.indentguide.painter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.certiv.tools.indentguide.TestSupport;
+
+class ColumnMetricsTest {
+
+	static final TestSupport TS = new TestSupport();
+
+	@BeforeEach
+	void setup() {
+		TS.setUp();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TS.tearDown();
+	}
+
+	@Test
+	void testShared() {
+		ColumnMetrics one = new ColumnMetrics();
+		boolean fixed = one.update(TS.widget);
+		int fonts = ColumnMetrics.registered();
+
+		// a second painter on the same font measures nothing
+		ColumnMetrics two = new ColumnMetrics();
+		assertEquals(fixed, two.update(TS.widget));
+		assertEquals(fonts, ColumnMetrics.registered());
+		assertEquals(one.loc(12), two.loc(12));
+
+		// unchanged widget keeps the stamp
+		int stamp = two.stamp();
+		two.update(TS.widget);
+		assertEquals(stamp, two.stamp());
+
+		TS.widget.setTabs(TS.widget.getTabs() * 2);
+		two.update(TS.widget);
+		assertNotEquals(stamp, two.stamp());
+	}
+}
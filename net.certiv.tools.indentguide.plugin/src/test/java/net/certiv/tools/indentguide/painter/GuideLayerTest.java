@@ -0,0 +1,51 @@
+package net.certiv.tools.indentguide.painter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class GuideLayerTest {
+
+	@Test
+	void testReplay() {
+		GuideLayer layer = new GuideLayer();
+		layer.validate(1, 0, 0);
+
+		for (int line = 10; line < 13; line++) {
+			layer.begin(line);
+			layer.add(4, 0, 10);
+			layer.add(8, 0, 10);
+			layer.commit();
+		}
+		assertTrue(layer.has(10));
+		assertTrue(layer.has(12));
+		assertFalse(layer.has(9));
+
+		// scrolled: lines replay at their new Y
+		GuideStrokes strokes = new GuideStrokes();
+		for (int line = 10; line < 13; line++) {
+			layer.replay(line, (line - 10) * 10 + 5, strokes);
+		}
+		assertEquals(6, strokes.segmentCnt());
+		assertEquals(2, strokes.strokeCnt());
+
+		// prepend keeps the window contiguous
+		layer.begin(9);
+		layer.commit();
+		assertTrue(layer.has(9));
+		assertTrue(layer.has(12));
+
+		// key change discards
+		layer.validate(1, 5, 0);
+		assertFalse(layer.has(10));
+
+		layer.validate(1, 5, 0);
+		layer.begin(10);
+		layer.commit();
+		assertTrue(layer.has(10));
+		layer.invalidate();
+		assertFalse(layer.has(10));
+	}
+}
@@ -0,0 +1,54 @@
+package net.certiv.tools.indentguide.painter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class GuideStrokesTest {
+
+	@Test
+	void testMerge() {
+		GuideStrokes strokes = new GuideStrokes();
+
+		// three contiguous lines, two guides each
+		for (int line = 0; line < 3; line++) {
+			int y = line * 10;
+			strokes.add(4, y, y + 10);
+			strokes.add(8, y, y + 10);
+		}
+		assertEquals(6, strokes.segmentCnt());
+		assertEquals(2, strokes.strokeCnt());
+
+		// gap at x=8, continuation at x=4
+		strokes.add(4, 30, 40);
+		strokes.add(8, 50, 60);
+		assertEquals(3, strokes.strokeCnt());
+
+		// overlapping ascending segment
+		strokes.add(8, 55, 70);
+		assertEquals(3, strokes.strokeCnt());
+
+		strokes.reset();
+		assertEquals(0, strokes.strokeCnt());
+		assertEquals(0, strokes.segmentCnt());
+	}
+
+	@Test
+	void testOutOfOrder() {
+		GuideStrokes strokes = new GuideStrokes();
+
+		// a line segment, then the block segments above and below it
+		strokes.add(8, 30, 40);
+		strokes.add(8, 0, 30);
+		strokes.add(8, 40, 50);
+		strokes.add(4, 60, 70);
+		strokes.add(4, 0, 10);
+		assertEquals(3, strokes.strokeCnt());
+		assertEquals("4:0-10 4:60-70 8:0-50", strokes.toString());
+
+		// top-down adds continue the merged runs
+		strokes.add(8, 50, 55);
+		assertEquals(3, strokes.strokeCnt());
+		assertEquals("4:0-10 4:60-70 8:0-55", strokes.toString());
+	}
+}
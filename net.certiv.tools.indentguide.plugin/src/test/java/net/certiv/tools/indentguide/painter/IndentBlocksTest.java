@@ -0,0 +1,66 @@
+package net.certiv.tools.indentguide.painter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IndentBlocksTest {
+
+	List<Integer> levels = new ArrayList<>();
+
+	private String query(IndentBlocks blocks, int beg, int end) {
+		StringBuilder sb = new StringBuilder();
+		blocks.query(beg, end, (b, e, d) -> sb.append(String.format("%d:%d-%d ", d, b, e)));
+		return sb.toString().trim();
+	}
+
+	@Test
+	void testQuery() {
+		levels.addAll(Arrays.asList(0, 1, 2, 2, 0, 1, 3, 1));
+		IndentBlocks blocks = new IndentBlocks(levels::get);
+		blocks.rebuild(levels.size());
+
+		assertEquals(3, blocks.depths());
+		assertEquals("0:1-3 0:5-7 1:2-3 1:6-6 2:6-6", query(blocks, 0, 7));
+		assertEquals("0:1-3 1:2-3", query(blocks, 3, 4));
+		assertEquals("0:5-7", query(blocks, 7, 7));
+		assertEquals("", query(blocks, 4, 4));
+	}
+
+	@Test
+	void testReplace() {
+		Random rand = new Random(42);
+		for (int idx = 0; idx < 60; idx++) {
+			levels.add(rand.nextInt(4));
+		}
+		IndentBlocks blocks = new IndentBlocks(levels::get);
+		blocks.rebuild(levels.size());
+
+		for (int edit = 0; edit < 2000; edit++) {
+			int beg = rand.nextInt(levels.size());
+			int oldEnd = Math.min(levels.size() - 1, beg + rand.nextInt(4));
+			levels.subList(beg, oldEnd + 1).clear();
+			int size = levels.size();
+			int newEnd = beg + (size < 30 ? 3 : size > 90 ? 0 : rand.nextInt(4));
+			for (int line = beg; line <= newEnd; line++) {
+				levels.add(line, rand.nextInt(5));
+			}
+
+			// relexed lines following the edit
+			int last = newEnd;
+			for (int cnt = rand.nextInt(3); cnt > 0 && last + 1 < levels.size(); cnt--) {
+				levels.set(++last, rand.nextInt(5));
+			}
+			blocks.replace(beg, oldEnd, newEnd, last, levels.size());
+
+			IndentBlocks expected = new IndentBlocks(levels::get);
+			expected.rebuild(levels.size());
+			assertEquals(query(expected, 0, levels.size()), query(blocks, 0, levels.size()), "Edit " + edit);
+		}
+	}
+}
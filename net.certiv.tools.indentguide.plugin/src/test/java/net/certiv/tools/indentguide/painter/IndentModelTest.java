@@ -0,0 +1,368 @@
+package net.certiv.tools.indentguide.painter;
+
+import static net.certiv.tools.indentguide.TestSupport.TABWIDTH;
+import static net.certiv.tools.indentguide.TestSupport.loadResource;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.rules.FastPartitioner;
+import org.eclipse.jface.text.rules.IPredicateRule;
+import org.eclipse.jface.text.rules.MultiLineRule;
+import org.eclipse.jface.text.rules.RuleBasedPartitionScanner;
+import org.eclipse.jface.text.rules.Token;
+import org.eclipse.swt.widgets.Display;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import net.certiv.tools.indentguide.TestSupport;
+import net.certiv.tools.indentguide.util.Utils;
+
+class IndentModelTest {
+
+	static final TestSupport TS = new TestSupport();
+	static final String STR = "__multiline_string"; //$NON-NLS-1$
+	static final String XML_CMT = "__xml_comment"; //$NON-NLS-1$
+	String src0;
+	String src1;
+	Map<String, List<String>> map;
+	IndentModel model;
+
+	@BeforeEach
+	void setup() {
+		TS.setUp();
+		if (src0 == null) {
+			src0 = assertDoesNotThrow(() -> loadResource(getClass(), "TestSrc0.txt"));
+		}
+		if (src1 == null) {
+			src1 = assertDoesNotThrow(() -> loadResource(getClass(), "TestSrc1.txt"));
+		}
+		if (map == null) {
+			map = assertDoesNotThrow(() -> Utils.prefixesFor(TS.viewer));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (model != null) model.disconnect();
+		model = null;
+		TS.tearDown();
+	}
+
+	private IDocument connect(String src) {
+		IDocument doc = new Document(src);
+		TS.viewer.setDocument(doc);
+		model = new IndentModel(doc, map, TABWIDTH);
+		model.connect();
+		return doc;
+	}
+
+	@ParameterizedTest
+	@CsvFileSource(resources = "/line_multi_src1.csv", numLinesToSkip = 1)
+	void testModelSrc1(int idx, int num, boolean blank, boolean block, boolean cmt0, int real, int cnt,
+			int delta, int beg) {
+
+		connect(src1);
+		Line ln = Line.of(TS.viewer, TS.widget, model, null, 0, num, num);
+		assertNotNull(ln);
+
+		assertEquals(blank, ln.blank, "Blank");
+		assertEquals(block, ln.block, "Block");
+		assertEquals(cmt0, ln.cmt0, "Cmt0");
+		assertEquals(real, ln.info.num, "Real");
+		assertEquals(cnt, ln.stopCnt(), "Stop");
+		assertEquals(delta, ln.delta, "Delta");
+		assertEquals(beg, ln.textCol(), "Beg");
+	}
+
+	@ParameterizedTest
+	@CsvFileSource(resources = "/line_multi_src1.csv", numLinesToSkip = 1)
+	void testStateSrc1(int idx, int num, boolean blank, boolean block, boolean cmt0, int real, int cnt,
+			int delta, int beg) {
+
+		connect(src1);
+		ColumnMetrics metrics = new ColumnMetrics();
+		metrics.update(TS.widget);
+
+		LineState state = new LineState();
+		state.fill(model, metrics, 0, num);
+
+		assertEquals(blank, state.blank, "Blank");
+		assertEquals(block, state.block, "Block");
+		assertEquals(cmt0, state.cmt0, "Cmt0");
+		assertEquals(cnt, state.stopCnt(), "Stop");
+		assertEquals(delta, state.delta, "Delta");
+		assertEquals(beg, state.textCol, "Beg");
+
+		// reuse must fully reset prior state
+		state.fill(model, metrics, 0, 0);
+		state.fill(model, metrics, 0, num);
+		assertEquals(cnt, state.stopCnt(), "Stop (reused)");
+	}
+
+	@Test
+	void testEdits() throws Exception {
+		IDocument doc = connect(src0);
+		assertEquals(doc.getNumberOfLines(), model.lineCount());
+		assertEquals(4, model.beg(4));
+
+		// indent a single line
+		doc.replace(doc.getLineOffset(4), 0, Utils.TAB + "");
+		assertTrue(model.isCurrent(doc, TABWIDTH));
+		assertEquals(8, model.beg(4));
+		assertEquals(3, model.stopCnt(4));
+
+		// insert lines
+		doc.replace(doc.getLineOffset(3), 0, "\n\n");
+		assertTrue(model.isCurrent(doc, TABWIDTH));
+		assertTrue(model.isBlank(3));
+		assertTrue(model.isBlank(4));
+		assertEquals(8, model.beg(6));
+
+		// remove lines
+		doc.replace(doc.getLineOffset(3), 2, Utils.EMPTY);
+		assertTrue(model.isCurrent(doc, TABWIDTH));
+		assertFalse(model.isBlank(4));
+		assertEquals(8, model.beg(4));
+
+		doc.set(Utils.EMPTY);
+		assertTrue(model.isCurrent(doc, TABWIDTH));
+		assertEquals(1, model.lineCount());
+	}
+
+	@Test
+	void testRealLinks() throws Exception {
+		IDocument doc = connect("a\n\n// cmt\n\n\tb\n");
+		assertEquals(0, model.prev(0));
+		assertEquals(0, model.prev(3));
+		assertEquals(4, model.next(1));
+		assertEquals(4, model.next(4));
+		assertEquals(4, model.prev(5));
+
+		// fill a blank line within the run
+		doc.replace(doc.getLineOffset(3), 0, "c");
+		assertEquals(3, model.prev(4));
+		assertEquals(3, model.next(1));
+		assertEquals(0, model.prev(2));
+
+		// blank the line again
+		doc.replace(doc.getLineOffset(3), 1, Utils.EMPTY);
+		assertEquals(0, model.prev(3));
+		assertEquals(4, model.next(0));
+
+		// remove the first real line
+		doc.replace(0, 2, Utils.EMPTY);
+		assertEquals(0, model.prev(0));
+		assertEquals(3, model.next(0));
+		assertEquals(3, model.prev(4));
+	}
+
+	@Test
+	void testDamage() throws Exception {
+		IDocument doc = connect("a\n\n// cmt\n\n\tb\n");
+		assertTrue(model.hasDamage());
+		assertEquals(0, model.damageBeg());
+		assertEquals(5, model.damageEnd());
+		model.clearDamage();
+
+		// content only edit
+		doc.replace(0, 1, "x");
+		assertFalse(model.hasDamage());
+
+		// indent change spans the blank lines referencing the line
+		doc.replace(doc.getLineOffset(4), 0, Utils.TAB + "");
+		assertTrue(model.hasDamage());
+		assertEquals(1, model.damageBeg());
+		assertEquals(5, model.damageEnd());
+		model.clearDamage();
+
+		// accumulated damage shifts with inserted lines
+		doc.replace(doc.getLineOffset(4), 0, "\tc\n");
+		model.clearDamage();
+		doc.replace(doc.getLineOffset(5), 0, "\t");
+		doc.replace(0, 0, "\n");
+		assertEquals(0, model.damageBeg());
+		assertEquals(7, model.damageEnd());
+	}
+
+	@Test
+	void testBlockComments() throws Exception {
+		IDocument doc = connect("a\n/*\nbody\n*/\nb\n");
+		assertFalse(model.isBlock(0));
+		assertTrue(model.isBlock(1));
+		assertTrue(model.isBlock(2));
+		assertTrue(model.isBlock(3));
+		assertFalse(model.isBlock(4));
+		model.clearDamage();
+
+		// unopen the comment; state is re-lexed past the edited line
+		doc.replace(doc.getLineOffset(1), 2, "c");
+		assertFalse(model.isBlock(1));
+		assertFalse(model.isBlock(2));
+		assertFalse(model.isBlock(3));
+		assertEquals(1, model.damageBeg());
+		assertEquals(3, model.damageEnd());
+
+		// delimiters within literals and line comments
+		doc.set("s = \"/*\";\nc = '/';\n// x /*\nd\n");
+		for (int line = 0; line < 4; line++) {
+			assertFalse(model.isBlock(line));
+		}
+	}
+
+	@Test
+	void testBlockCommentTypes() throws Exception {
+		// no C-style prefixes: never lexed
+		IDocument doc = new Document("a\n/*\nb\n");
+		model = new IndentModel(doc, Map.of(IDocument.DEFAULT_CONTENT_TYPE, List.of("#")), TABWIDTH);
+		model.connect();
+		for (int line = 0; line < 3; line++) {
+			assertFalse(model.isBlock(line));
+		}
+		model.disconnect();
+
+		// opener within a multiline string partition
+		RuleBasedPartitionScanner scanner = new RuleBasedPartitionScanner();
+		scanner.setPredicateRules(new IPredicateRule[] { new MultiLineRule("\"\"\"", "\"\"\"", new Token(STR)) });
+		FastPartitioner partitioner = new FastPartitioner(scanner, new String[] { STR });
+		doc = new Document("a\ns = \"\"\"\n/*\n\"\"\"\nb\n");
+		partitioner.connect(doc);
+		doc.setDocumentPartitioner(partitioner);
+
+		model = new IndentModel(doc, Map.of(IDocument.DEFAULT_CONTENT_TYPE, List.of("//"), STR, List.of("//")),
+				TABWIDTH);
+		model.connect();
+		for (int line = 0; line < 5; line++) {
+			assertFalse(model.isBlock(line), "Block " + line);
+		}
+	}
+
+	@Test
+	void testRepartition() throws Exception {
+		RuleBasedPartitionScanner scanner = new RuleBasedPartitionScanner();
+		scanner.setPredicateRules(
+				new IPredicateRule[] { new MultiLineRule("<!--", "-->", new Token(XML_CMT), (char) 0, true) });
+		FastPartitioner partitioner = new FastPartitioner(scanner, new String[] { XML_CMT });
+		IDocument doc = new Document("a\n#b\n#c\nd\n");
+		partitioner.connect(doc);
+		doc.setDocumentPartitioner(partitioner);
+
+		model = new IndentModel(doc, Map.of(IDocument.DEFAULT_CONTENT_TYPE, List.of("#")), TABWIDTH);
+		model.connect();
+		assertTrue(model.isCol0Comment(1));
+		assertTrue(model.isCol0Comment(2));
+		model.clearDamage();
+
+		// opening a comment on the first line repartitions the following lines
+		doc.replace(0, 0, "<!--");
+		assertFalse(model.isCol0Comment(1));
+		assertFalse(model.isCol0Comment(2));
+		assertTrue(model.hasDamage());
+		assertTrue(model.damageEnd() >= 2);
+
+		doc.replace(0, 4, Utils.EMPTY);
+		assertTrue(model.isCol0Comment(1));
+		assertTrue(model.isCol0Comment(2));
+	}
+
+	@Test
+	void testBackground() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < IndentModel.ASYNC_LINES * 8) {
+			sb.append(src1);
+		}
+		IDocument doc = connect(sb.toString());
+		assertFalse(model.isReady());
+		assertFalse(model.isCurrent(doc, TABWIDTH));
+		assertTrue(model.isFor(doc, TABWIDTH));
+
+		Display display = TS.widget.getDisplay();
+		long deadline = System.currentTimeMillis() + 30000;
+		while (!model.isReady() && System.currentTimeMillis() < deadline) {
+			if (!display.readAndDispatch()) Thread.sleep(10);
+		}
+		assertTrue(model.isCurrent(doc, TABWIDTH));
+		assertEquals(0, model.types().queries());
+
+		IndentModel sync = new IndentModel(new Document(doc.get()), map, TABWIDTH);
+		sync.reload();
+		assertEquals(sync.lineCount(), model.lineCount());
+		for (int line = 0; line < model.lineCount(); line += 97) {
+			assertEquals(sync.beg(line), model.beg(line), "Beg " + line);
+			assertEquals(sync.isBlank(line), model.isBlank(line), "Blank " + line);
+			assertEquals(sync.isBlock(line), model.isBlock(line), "Block " + line);
+			assertEquals(sync.isCol0Comment(line), model.isCol0Comment(line), "Cmt0 " + line);
+			assertEquals(sync.prev(line), model.prev(line), "Prev " + line);
+			assertEquals(sync.next(line), model.next(line), "Next " + line);
+		}
+	}
+
+	@Test
+	void testBlocks() throws Exception {
+		IDocument doc = connect("a\n\tb\n\t\tc\n\n\td\ne\n");
+		StringBuilder sb = new StringBuilder();
+		model.blocks().query(0, model.lineCount() - 1, (b, e, d) -> sb.append(String.format("%d:%d-%d ", d, b, e)));
+		assertEquals("0:1-2 0:4-4 1:2-2", sb.toString().trim());
+
+		// the blank line no longer splits the block
+		doc.replace(doc.getLineOffset(3), 0, "\tx");
+		sb.setLength(0);
+		model.blocks().query(0, model.lineCount() - 1, (b, e, d) -> sb.append(String.format("%d:%d-%d ", d, b, e)));
+		assertEquals("0:1-4 1:2-2", sb.toString().trim());
+	}
+
+	@Test
+	void testDegraded() throws Exception {
+		IDocument doc = new Document("\tc\n\n\n\n/*\n");
+		model = new IndentModel(doc, map, TABWIDTH);
+		model.limits(3, 1000, 2);
+		model.connect();
+		assertTrue(model.isDegraded());
+		assertFalse(model.isBlock(4));
+
+		ColumnMetrics metrics = new ColumnMetrics();
+		metrics.update(TS.widget);
+		LineState state = new LineState();
+
+		// reference line within the scan distance
+		state.fill(model, metrics, 0, 1);
+		assertEquals(TABWIDTH, state.textCol);
+		assertEquals(0, state.delta);
+
+		// reference line beyond the scan distance
+		state.fill(model, metrics, 0, 3);
+		assertEquals(0, state.textCol);
+		assertEquals(1, state.stopCnt());
+		model.disconnect();
+
+		// overlong lines only: only those lines are degraded
+		doc = new Document("a\n/* long comment\n/*\nx\n");
+		model = new IndentModel(doc, map, TABWIDTH);
+		model.limits(1000, 5, 2);
+		model.connect();
+		assertFalse(model.isDegraded());
+		assertTrue(model.isDegraded(1));
+		assertFalse(model.isDegraded(2));
+		assertEquals(1, model.overlong());
+		assertFalse(model.isBlock(1));
+		assertTrue(model.isBlock(2));
+
+		// removing the line restores the line count
+		doc.replace(doc.getLineOffset(1), doc.getLineLength(1), Utils.EMPTY);
+		assertEquals(0, model.overlong());
+		doc.replace(0, 0, "/* long\n/* longer\n");
+		assertEquals(2, model.overlong());
+		doc.replace(0, doc.getLineOffset(2), Utils.EMPTY);
+		assertEquals(0, model.overlong());
+	}
+}
@@ -0,0 +1,72 @@
+package net.certiv.tools.indentguide.painter;
+
+import static net.certiv.tools.indentguide.TestSupport.TABWIDTH;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.certiv.tools.indentguide.TestSupport;
+import net.certiv.tools.indentguide.util.Utils;
+
+class IndentModelsTest {
+
+	static final TestSupport TS = new TestSupport();
+	static final int MAX = Integer.MAX_VALUE;
+
+	@BeforeEach
+	void setup() {
+		TS.setUp();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TS.tearDown();
+	}
+
+	@Test
+	void testShared() throws Exception {
+		Map<String, List<String>> map = assertDoesNotThrow(() -> Utils.prefixesFor(TS.viewer));
+		IDocument doc = new Document("a\n\tb\n\n\tc\n");
+
+		IndentModel one = IndentModels.acquire(doc, map, TABWIDTH, MAX, MAX, MAX);
+		IndentModel two = IndentModels.acquire(doc, map, TABWIDTH, MAX, MAX, MAX);
+		assertSame(one, two);
+		assertEquals(2, IndentModels.refs(one));
+
+		IndentModel other = IndentModels.acquire(doc, map, TABWIDTH * 2, MAX, MAX, MAX);
+		assertNotSame(one, other);
+		IndentModels.release(other);
+		assertEquals(0, IndentModels.refs(other));
+
+		// damage is consumed independently
+		LineDamage dmg1 = one.track();
+		LineDamage dmg2 = two.track();
+		doc.replace(doc.getLineOffset(1), 0, "\t");
+		assertTrue(dmg1.has());
+		dmg1.clear();
+		assertTrue(dmg2.has());
+		assertEquals(1, dmg2.beg());
+		one.untrack(dmg1);
+		two.untrack(dmg2);
+
+		// disconnected once released by all
+		IndentModels.release(one);
+		assertTrue(one.isCurrent(doc, TABWIDTH));
+		IndentModels.release(two);
+		assertEquals(0, IndentModels.refs(one));
+		doc.replace(0, 0, "\n");
+		assertFalse(one.isCurrent(doc, TABWIDTH));
+	}
+}
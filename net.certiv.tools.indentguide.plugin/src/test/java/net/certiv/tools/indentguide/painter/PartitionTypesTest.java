@@ -0,0 +1,95 @@
+package net.certiv.tools.indentguide.painter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.rules.FastPartitioner;
+import org.eclipse.jface.text.rules.IPredicateRule;
+import org.eclipse.jface.text.rules.MultiLineRule;
+import org.eclipse.jface.text.rules.RuleBasedPartitionScanner;
+import org.eclipse.jface.text.rules.Token;
+import org.junit.jupiter.api.Test;
+
+class PartitionTypesTest {
+
+	static final String CMT = "__cmt"; //$NON-NLS-1$
+
+	@Test
+	void testTypes() throws Exception {
+		RuleBasedPartitionScanner scanner = new RuleBasedPartitionScanner();
+		scanner.setPredicateRules(new IPredicateRule[] { new MultiLineRule("/*", "*/", new Token(CMT)) });
+		FastPartitioner partitioner = new FastPartitioner(scanner, new String[] { CMT });
+
+		IDocument doc = new Document("a\n/*\n b\n*/\nc\n");
+		partitioner.connect(doc);
+		doc.setDocumentPartitioner(partitioner);
+
+		PartitionTypes types = new PartitionTypes(doc);
+		types.connect();
+
+		assertEquals(IDocument.DEFAULT_CONTENT_TYPE, types.typeOf(0));
+		assertEquals(CMT, types.typeOf(1));
+		assertEquals(CMT, types.typeOf(2));
+		assertEquals(IDocument.DEFAULT_CONTENT_TYPE, types.typeOf(4));
+		assertEquals(4, types.queries());
+
+		// cached
+		types.typeOf(2);
+		assertEquals(4, types.queries());
+
+		// open the comment on the first line
+		doc.replace(0, 1, "/*");
+		assertEquals(CMT, types.typeOf(0));
+		assertEquals(IDocument.DEFAULT_CONTENT_TYPE, types.typeOf(4));
+
+		types.disconnect();
+	}
+
+	@Test
+	void testSeed() throws Exception {
+		RuleBasedPartitionScanner scanner = new RuleBasedPartitionScanner();
+		scanner.setPredicateRules(new IPredicateRule[] { new MultiLineRule("/*", "*/", new Token(CMT)) });
+		FastPartitioner partitioner = new FastPartitioner(scanner, new String[] { CMT });
+
+		IDocument doc = new Document("a\n/*\n b\n*/\nc\n");
+		partitioner.connect(doc);
+		doc.setDocumentPartitioner(partitioner);
+
+		PartitionTypes types = new PartitionTypes(new Document(doc.get()));
+		types.seed(doc.computePartitioning(0, doc.getLength()));
+
+		PartitionTypes live = new PartitionTypes(doc);
+		for (int line = 0; line < doc.getNumberOfLines(); line++) {
+			assertEquals(live.typeOf(line), types.typeOf(line), "Line " + line);
+		}
+		assertEquals(0, types.queries());
+	}
+
+	@Test
+	void testShift() throws Exception {
+		IDocument doc = new Document("a\nb\nc\nd\n");
+		PartitionTypes types = new PartitionTypes(doc);
+		types.connect();
+		for (int line = 0; line < doc.getNumberOfLines(); line++) {
+			types.typeOf(line);
+		}
+		int queries = types.queries();
+
+		// lines following an edit remain cached
+		doc.replace(0, 0, "x\n");
+		for (int line = 0; line < doc.getNumberOfLines(); line++) {
+			assertEquals(IDocument.DEFAULT_CONTENT_TYPE, types.typeOf(line));
+		}
+		assertEquals(queries + 2, types.queries());
+
+		queries = types.queries();
+		doc.replace(doc.getLineOffset(1), 4, "");
+		for (int line = 0; line < doc.getNumberOfLines(); line++) {
+			types.typeOf(line);
+		}
+		assertEquals(queries + 1, types.queries());
+
+		types.disconnect();
+	}
+}
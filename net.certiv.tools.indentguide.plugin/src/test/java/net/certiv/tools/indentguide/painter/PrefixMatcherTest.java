@@ -0,0 +1,43 @@
+package net.certiv.tools.indentguide.painter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.jupiter.api.Test;
+
+class PrefixMatcherTest {
+
+	@Test
+	void testMatch() throws Exception {
+		PrefixMatcher matcher = PrefixMatcher.of(List.of("//", "#", "/**/", "--"));
+
+		assertTrue(matcher.matches("// line"));
+		assertTrue(matcher.matches("//"));
+		assertTrue(matcher.matches("#"));
+		assertTrue(matcher.matches("-- sql"));
+		assertFalse(matcher.matches("/"));
+		assertFalse(matcher.matches("/* blk"));
+		assertFalse(matcher.matches(" // indented"));
+		assertFalse(matcher.matches(""));
+
+		IDocument doc = new Document("a\n// b\n#\n/\n");
+		assertFalse(matcher.matches(doc, doc.getLineOffset(0), doc.getLineLength(0) - 1));
+		assertTrue(matcher.matches(doc, doc.getLineOffset(1), doc.getLineLength(1) - 1));
+		assertTrue(matcher.matches(doc, doc.getLineOffset(2), doc.getLineLength(2) - 1));
+		assertFalse(matcher.matches(doc, doc.getLineOffset(3), doc.getLineLength(3) - 1));
+	}
+
+	@Test
+	void testShared() {
+		List<String> prefixes = new ArrayList<>(List.of("//"));
+		assertSame(PrefixMatcher.of(prefixes), PrefixMatcher.of(List.of("//")));
+		assertSame(PrefixMatcher.NONE, PrefixMatcher.of(null));
+		assertFalse(PrefixMatcher.NONE.matches("//"));
+	}
+}
@@ -0,0 +1,64 @@
+package net.certiv.tools.indentguide.painter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.swt.widgets.Display;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.certiv.tools.indentguide.TestSupport;
+
+class RedrawSchedulerTest {
+
+	static final TestSupport TS = new TestSupport();
+
+	int flushes;
+	boolean all;
+
+	@BeforeEach
+	void setup() {
+		TS.setUp();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TS.tearDown();
+	}
+
+	@Test
+	void testCoalesce() {
+		Display display = TS.widget.getDisplay();
+		RedrawScheduler[] ref = new RedrawScheduler[1];
+		RedrawScheduler scheduler = new RedrawScheduler(display, () -> {
+			flushes++;
+			all = ref[0].isAll();
+		});
+		ref[0] = scheduler;
+
+		// burst within one turn
+		scheduler.request();
+		scheduler.request();
+		scheduler.requestAll();
+		scheduler.request();
+		assertEquals(4, scheduler.requests());
+		assertEquals(3, scheduler.coalesced());
+
+		while (display.readAndDispatch()) {}
+		assertEquals(1, flushes);
+		assertTrue(all);
+
+		// next turn starts a new flush
+		scheduler.request();
+		while (display.readAndDispatch()) {}
+		assertEquals(2, flushes);
+		assertFalse(all);
+
+		scheduler.dispose();
+		scheduler.request();
+		while (display.readAndDispatch()) {}
+		assertEquals(2, flushes);
+	}
+}
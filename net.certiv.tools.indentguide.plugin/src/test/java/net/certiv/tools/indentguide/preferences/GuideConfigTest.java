@@ -0,0 +1,44 @@
+package net.certiv.tools.indentguide.preferences;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.jface.preference.PreferenceStore;
+import org.junit.jupiter.api.Test;
+
+import net.certiv.tools.indentguide.Activator;
+
+class GuideConfigTest {
+
+	@Test
+	void testSnapshot() {
+		PreferenceStore store = new PreferenceStore();
+		store.setValue(Pref.LINE_WIDTH, 1);
+		store.setValue(Pref.LARGE_LINES, 1000);
+		store.setValue(Pref.LINE_COLOR, "128,128,128");
+		store.setValue(Pref.LINE_COLOR + Pref.DARK, "64,64,64");
+
+		GuideConfig one = GuideConfig.of(store);
+		assertEquals(one, GuideConfig.of(store));
+
+		store.setValue(Pref.LINE_WIDTH, 2);
+		GuideConfig two = GuideConfig.of(store);
+		assertNotEquals(one, two);
+		assertEquals(2, two.lineWidth);
+		assertFalse(two.limitsDiffer(one));
+
+		store.setValue(Pref.LARGE_LINES, 2000);
+		assertTrue(GuideConfig.of(store).limitsDiffer(two));
+	}
+
+	@Test
+	void testPublish() {
+		// unchanged: not republished
+		GuideConfig current = GuideConfig.current();
+		assertSame(current, GuideConfig.publish(Activator.getDefault().getPreferenceStore()));
+		assertSame(current, GuideConfig.current());
+	}
+}
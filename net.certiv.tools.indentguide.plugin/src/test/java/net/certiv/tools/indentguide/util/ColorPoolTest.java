@@ -0,0 +1,52 @@
+package net.certiv.tools.indentguide.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.certiv.tools.indentguide.TestSupport;
+
+class ColorPoolTest {
+
+	static final TestSupport TS = new TestSupport();
+
+	@BeforeEach
+	void setup() {
+		TS.setUp();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TS.tearDown();
+	}
+
+	@Test
+	void testPool() {
+		Display display = TS.widget.getDisplay();
+		int size = ColorPool.size(display);
+
+		Color one = ColorPool.get(display, new RGB(1, 2, 3));
+		Color two = ColorPool.get(display, new RGB(1, 2, 3));
+		assertSame(one, two);
+		assertEquals(size + 1, ColorPool.size(display));
+
+		Color other = ColorPool.get(display, new RGB(3, 2, 1));
+		assertNotSame(one, other);
+		assertEquals(size + 2, ColorPool.size(display));
+	}
+
+	@Test
+	void testDarkTheme() {
+		boolean dark = ColorPool.isDarkTheme();
+		assertEquals(dark, ColorPool.isDarkTheme());
+		ColorPool.invalidate();
+		assertEquals(Utils.evalDarkTheme(), ColorPool.isDarkTheme());
+	}
+}
@@ -0,0 +1,64 @@
+package net.certiv.tools.indentguide.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.text.source.SourceViewerConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.certiv.tools.indentguide.TestSupport;
+
+class PrefixTablesTest {
+
+	static final TestSupport TS = new TestSupport();
+
+	@BeforeEach
+	void setup() {
+		TS.setUp();
+		PrefixTables.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TS.tearDown();
+	}
+
+	@Test
+	void testShared() throws Exception {
+		SourceViewerConfiguration config = new SourceViewerConfiguration();
+		Map<String, List<String>> one = PrefixTables.lookup(null, config, TS.viewer);
+		assertEquals(List.of("//"), one.get(TS.type0));
+		assertEquals(List.of("<!--"), one.get(TS.type2));
+		assertSame(one.get(TS.type0), one.get(TS.type1));
+		assertThrows(UnsupportedOperationException.class, () -> one.put(TS.type0, List.of()));
+
+		// a second viewer of the same configuration
+		TS.tearDown();
+		TS.setUp();
+		Map<String, List<String>> two = PrefixTables.lookup(null, config, TS.viewer);
+		assertSame(one, two);
+		assertEquals(1, PrefixTables.size());
+	}
+
+	@Test
+	void testInvalidate() throws Exception {
+		SourceViewerConfiguration config = new SourceViewerConfiguration();
+		Map<String, List<String>> one = PrefixTables.lookup(null, config, TS.viewer);
+		int invalidations = PrefixTables.invalidations();
+
+		TS.viewer.setDefaultPrefixes(new String[] { "#" }, TS.type2);
+		Map<String, List<String>> two = PrefixTables.lookup(null, config, TS.viewer);
+		assertNotSame(one, two);
+		assertEquals(List.of("#"), two.get(TS.type2));
+		assertSame(one.get(TS.type0), two.get(TS.type0));
+		assertEquals(invalidations + 1, PrefixTables.invalidations());
+		assertSame(two, PrefixTables.lookup(null, config, TS.viewer));
+	}
+}
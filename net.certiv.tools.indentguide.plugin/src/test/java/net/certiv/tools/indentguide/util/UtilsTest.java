@@ -1,36 +1,69 @@
-package net.certiv.tools.indentguide.util;
-
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertTrue;
-
-import java.util.List;
-import java.util.Map;
-
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-
-import net.certiv.tools.indentguide.TestSupport;
-
-class UtilsTest {
-
-	static final TestSupport TS = new TestSupport();
-
-	@BeforeEach
-	void setup() {
-		TS.setUp();
-	}
-
-	@AfterEach
-	void tearDown() {
-		TS.tearDown();
-	}
-
-	@Test
-	void testPrefixes() {
-		Map<String, List<String>> map = assertDoesNotThrow(() -> Utils.prefixesFor(TS.viewer));
-
-		assertTrue(!map.isEmpty());
-		map.forEach((k, v) -> assertTrue(v.size() == 1));
-	}
-}
+package net.certiv.tools.indentguide.util;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.certiv.tools.indentguide.TestSupport;
+
+class UtilsTest {
+
+	static final TestSupport TS = new TestSupport();
+
+	@BeforeEach
+	void setup() {
+		TS.setUp();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TS.tearDown();
+	}
+
+	@Test
+	void testPrefixes() {
+		Map<String, List<String>> map = assertDoesNotThrow(() -> Utils.prefixesFor(TS.viewer));
+
+		assertTrue(!map.isEmpty());
+		map.forEach((k, v) -> assertTrue(v.size() == 1));
+	}
+
+	@Test
+	void testHandles() throws Exception {
+		String upper = Utils.invoke("abc", "toUpperCase");
+		assertEquals("ABC", upper);
+		int size = Handles.size(String.class);
+
+		// resolved once per class
+		assertEquals("XYZ", Utils.invoke("xyz", "toUpperCase"));
+		assertEquals(size, Handles.size(String.class));
+
+		// missing members are cached as such
+		assertThrows(NoSuchMethodException.class, () -> Utils.invoke("abc", "noSuchMethod"));
+		assertThrows(NoSuchMethodException.class, () -> Utils.invoke("abc", "noSuchMethod"));
+		assertEquals(size + 1, Handles.size(String.class));
+
+		// static methods ignore the target
+		assertEquals("5", Utils.invoke("abc", "valueOf", new Class<?>[] { int.class }, new Object[] { 5 }));
+
+		Map<String, String[]> map = Utils.getValue(TS.viewer, "fDefaultPrefixChars");
+		assertTrue(map != null);
+
+		// unchecked exceptions pass through; checked exceptions are wrapped
+		assertThrows(StringIndexOutOfBoundsException.class,
+				() -> Utils.invoke("abc", "charAt", new Class<?>[] { int.class }, new Object[] { 10 }));
+		StringReader reader = new StringReader("x");
+		reader.close();
+		assertThrows(InvocationTargetException.class, () -> Utils.invoke(reader, "read"));
+	}
+}